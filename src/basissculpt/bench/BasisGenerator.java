@@ -0,0 +1,360 @@
+/*
+ * BSD 3-Clause License
+ * 
+ * Copyright (c) 2025, M. Macernis
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation 
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors 
+ *    may be used to endorse or promote products derived from this software 
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE 
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER 
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, 
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE 
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package basissculpt.bench;
+
+import basissculpt.etc.Args;
+import basissculpt.etc.ArgsGet;
+import basissculpt.etc.BasisSculptException;
+import basissculpt.etc.Dic;
+import basissculpt.lib.read.FortranFormat;
+import java.io.*;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * BasisSculpt - Sculpting Gaussian Basis Sets via Norm Control
+ *
+ * Reproducible synthetic .gbs libraries for benchmarks. Every atom gets the
+ * shells of the shell pattern (e.g. S,S,SP,SPD,D), each with a random number
+ * of primitives in [min, max]; exponents are even-tempered or
+ * well-tempered (Huzinaga), coefficients follow a smooth profile over the
+ * exponents, optionally with a share of negative coefficients, and the most
+ * diffuse exponents may be repeated as uncontracted shells. With --general
+ * the contractions of a single-letter shell are written as the columns of
+ * one general contraction instead of separate shells. The same
+ * specification and seed always give the same file.
+ *
+ * <pre>
+ * java basissculpt.bench.BasisGenerator --output big.gbs --atoms 200 \
+ *      --min-primitives 20 --max-primitives 60 --shells S,SP,SPD,D
+ * </pre>
+ *
+ * @author M. Macernis
+ * @version 2025.4.v1
+ */
+public class BasisGenerator {
+
+    private static final String[] SYMBOLS = {
+        "H", "He", "Li", "Be", "B", "C", "N", "O", "F", "Ne", "Na", "Mg", "Al", "Si", "P", "S", "Cl", "Ar",
+        "K", "Ca", "Sc", "Ti", "V", "Cr", "Mn", "Fe", "Co", "Ni", "Cu", "Zn", "Ga", "Ge", "As", "Se", "Br", "Kr",
+        "Rb", "Sr", "Y", "Zr", "Nb", "Mo", "Tc", "Ru", "Rh", "Pd", "Ag", "Cd", "In", "Sn", "Sb", "Te", "I", "Xe",
+        "Cs", "Ba", "La", "Ce", "Pr", "Nd", "Pm", "Sm", "Eu", "Gd", "Tb", "Dy", "Ho", "Er", "Tm", "Yb", "Lu",
+        "Hf", "Ta", "W", "Re", "Os", "Ir", "Pt", "Au", "Hg", "Tl", "Pb", "Bi", "Po", "At", "Rn",
+        "Fr", "Ra", "Ac", "Th", "Pa", "U", "Np", "Pu", "Am", "Cm", "Bk", "Cf", "Es", "Fm", "Md", "No", "Lr",
+        "Rf", "Db", "Sg", "Bh", "Hs", "Mt", "Ds", "Rg", "Cn", "Nh", "Fl", "Mc", "Lv", "Ts", "Og"
+    };
+
+    private static final Set<String> OPTIONS = Set.of("atoms", "min-primitives", "max-primitives", "shells",
+            "exponents", "contractions", "general", "diffuse", "negative-fraction", "min-alpha", "max-alpha", "seed",
+            "output", "help");
+
+    public enum Exponents {
+        EVEN, WELL
+    }
+
+    /**
+     * What to generate. Public fields with the defaults of the command line.
+     */
+    public static class Spec {
+
+        public int atoms = 10;
+        public int minPrimitives = 20;
+        public int maxPrimitives = 60;
+        public String[] shells = {"S", "S", "SP", "SPD", "D"};
+        public Exponents exponents = Exponents.EVEN;
+        public int contractions = 1;          // contracted functions per shell over the same exponents
+        public boolean general = false;       // contractions of an S, P, D... shell as columns of one shell
+        public int diffuse = 1;               // uncontracted copies of the most diffuse exponents
+        public double negativeFraction = 0.0; // share of coefficients with a flipped sign
+        public double minAlpha = 0.05;
+        public double maxAlpha = 5.0e4;
+        public long seed = 1;
+
+        public static Spec of(ArgsGet args) {
+            Spec spec = new Spec();
+            if (args.getInt("atoms") != null) {
+                spec.atoms = args.getInt("atoms");
+            }
+            if (args.getInt("min-primitives") != null) {
+                spec.minPrimitives = args.getInt("min-primitives");
+            }
+            if (args.getInt("max-primitives") != null) {
+                spec.maxPrimitives = args.getInt("max-primitives");
+            }
+            if (args.getString("shells") != null) {
+                spec.shells = args.getString("shells").toUpperCase(Locale.ROOT).split(",");
+            }
+            if (args.getString("exponents") != null) {
+                spec.exponents = Exponents.valueOf(args.getString("exponents").toUpperCase(Locale.ROOT));
+            }
+            if (args.getInt("contractions") != null) {
+                spec.contractions = args.getInt("contractions");
+            }
+            spec.general = args.isKey("general");
+            if (args.getInt("diffuse") != null) {
+                spec.diffuse = args.getInt("diffuse");
+            }
+            if (args.getDouble("negative-fraction") != null) {
+                spec.negativeFraction = args.getDouble("negative-fraction");
+            }
+            if (args.getDouble("min-alpha") != null) {
+                spec.minAlpha = args.getDouble("min-alpha");
+            }
+            if (args.getDouble("max-alpha") != null) {
+                spec.maxAlpha = args.getDouble("max-alpha");
+            }
+            if (args.getString("seed") != null) {
+                spec.seed = Long.parseLong(args.getString("seed"));
+            }
+            if (spec.atoms < 1 || spec.minPrimitives < 1 || spec.maxPrimitives < spec.minPrimitives
+                    || spec.contractions < 1 || spec.diffuse < 0) {
+                throw new BasisSculptException(Dic.getMsg("ERROR_GENERATOR_SPEC"));
+            }
+            return spec;
+        }
+    }
+
+    /**
+     * Counts of what was written.
+     */
+    public static final class Totals {
+
+        public int atoms;
+        public int shells;
+        public long primitives; // primitive rows, one per exponent of a shell
+    }
+
+    public static void main(String[] args) throws IOException {
+        ArgsGet argset = new ArgsGet(new Args(args));
+        if (argset.isKey("help")) {
+            System.out.print("""
+BasisSculpt synthetic basis generator
+
+Usage:
+  java -cp BasisSculpt.jar basissculpt.bench.BasisGenerator \\
+    [--output <file.gbs>] \\
+    [--atoms <n>] \\
+    [--min-primitives <n>] \\
+    [--max-primitives <n>] \\
+    [--shells <S,S,SP,SPD,D>] \\
+    [--exponents even|well] \\
+    [--contractions <n>] \\
+    [--general] \\
+    [--diffuse <n>] \\
+    [--negative-fraction <0..1>] \\
+    [--min-alpha <alpha>] \\
+    [--max-alpha <alpha>] \\
+    [--seed <n>] \\
+    [--help]
+
+Options:
+  --output <file.gbs>      Library to write (default: standard output)
+  --atoms <n>              Number of atoms (default 10)
+  --min-primitives <n>     Fewest primitives of a shell (default 20)
+  --max-primitives <n>     Most primitives of a shell (default 60)
+  --shells <list>          Shell pattern of every atom (default S,S,SP,SPD,D)
+  --exponents even|well    Even-tempered or well-tempered exponents (default even)
+  --contractions <n>       Contracted functions per shell over the same exponents (default 1)
+  --general                Contractions of an S, P, D... shell as columns of one general contraction
+  --diffuse <n>            Uncontracted copies of the most diffuse exponents (default 1)
+  --negative-fraction <f>  Share of coefficients with a flipped sign (default 0)
+  --min-alpha <alpha>      Smallest exponent (default 0.05)
+  --max-alpha <alpha>      Largest exponent, scaled per element and shell (default 5e4)
+  --seed <n>               Random seed; the same options and seed give the same file (default 1)
+  --help                   Show this help message and exit
+""");
+            return;
+        }
+        try {
+            for (String key : argset.asMap().keySet()) {
+                if (!OPTIONS.contains(key)) {
+                    throw new BasisSculptException(Dic.getMsg("ERROR_GENERATOR_OPTION", key));
+                }
+            }
+            Spec spec = Spec.of(argset);
+            Writer out = argset.isKey("output")
+                    ? new BufferedWriter(new FileWriter(argset.getString("output")))
+                    : new BufferedWriter(new OutputStreamWriter(System.out));
+            Totals totals;
+            try (out) {
+                totals = generate(spec, out);
+            }
+            System.err.println(Dic.getMsg("INFO_GENERATED", totals.atoms, totals.shells, totals.primitives));
+        } catch (BasisSculptException | IllegalArgumentException ex) {
+            System.err.println(ex.getMessage());
+            System.exit(1);
+        }
+    }
+
+    public static Totals generate(Spec spec, Writer writer) throws IOException {
+        Random random = new Random(spec.seed);
+        FortranFormat line = new FortranFormat();
+        PrintWriter out = new PrintWriter(writer);
+        Totals totals = new Totals();
+        out.println("! synthetic basis, seed " + spec.seed);
+        for (int a = 0; a < spec.atoms; a++) {
+            String symbol = SYMBOLS[a % SYMBOLS.length];
+            out.println("-" + (a < SYMBOLS.length ? symbol : symbol + (a / SYMBOLS.length)));
+            // heavier elements get tighter exponents
+            double scale = 1 + (a % SYMBOLS.length) / 10.0;
+            for (String type : spec.shells) {
+                int n = spec.minPrimitives + random.nextInt(spec.maxPrimitives - spec.minPrimitives + 1);
+                double[] alpha = exponents(spec, n, spec.maxAlpha * scale / (1 + 3 * maxL(type)), random);
+                if (spec.general && type.length() == 1 && spec.contractions > 1) {
+                    general(spec, type, alpha, random, line, out);
+                    totals.shells++;
+                    totals.primitives += n;
+                }
+                for (int k = 0; k < spec.contractions && !(spec.general && type.length() == 1); k++) {
+                    out.println(type + "   " + n + " 1.00");
+                    double[][] c = new double[type.length()][];
+                    for (int j = 0; j < type.length(); j++) {
+                        c[j] = coefficients(spec, n, k, j, random);
+                    }
+                    for (int i = 0; i < n; i++) {
+                        line.appendZeroD(alpha[i], 10);
+                        for (double[] column : c) {
+                            line.append(column[i] < 0 ? " " : "  ").appendZeroD(column[i], 10);
+                        }
+                        line.println(out);
+                    }
+                    totals.shells++;
+                    totals.primitives += n;
+                }
+                for (int d = 0; d < Math.min(spec.diffuse, n); d++) {
+                    out.println(type + "   1 1.00");
+                    line.appendZeroD(alpha[n - 1 - d], 10);
+                    for (int j = 0; j < type.length(); j++) {
+                        line.append("  ").appendZeroD(1.0, 10);
+                    }
+                    line.println(out);
+                    totals.shells++;
+                    totals.primitives++;
+                }
+            }
+            out.println("****");
+            totals.atoms++;
+        }
+        out.flush();
+        return totals;
+    }
+
+    private static int maxL(String type) {
+        return type.contains("F") ? 3 : type.contains("D") ? 2 : type.contains("P") ? 1 : 0;
+    }
+
+    /**
+     * n exponents from the tightest to the most diffuse, rounded to six
+     * significant digits as in published sets.
+     */
+    static double[] exponents(Spec spec, int n, double maxAlpha, Random random) {
+        double minAlpha = spec.minAlpha * (0.8 + 0.4 * random.nextDouble());
+        double ratio = Math.max(maxAlpha / minAlpha, 1.5);
+        double[] alpha = new double[n];
+        for (int i = 0; i < n; i++) {
+            int k = n - 1 - i; // k = 0 is the most diffuse
+            double value;
+            if (spec.exponents == Exponents.EVEN || n == 1) {
+                value = minAlpha * Math.pow(ratio, n == 1 ? 0 : k / (double) (n - 1));
+            } else {
+                // α_k = α·β^k·(1 + γ·(k/n)^δ), γ = 2, δ = 6
+                double gamma = 2.0;
+                double beta = Math.pow(ratio / (1 + gamma), 1.0 / (n - 1));
+                value = minAlpha * Math.pow(beta, k) * (1 + gamma * Math.pow(k / (double) (n - 1), 6));
+            }
+            alpha[i] = round6(value);
+        }
+        return alpha;
+    }
+
+
+    /**
+     * One general contraction: the contractions of a single-letter shell as
+     * columns over the same exponents.
+     */
+    private static void general(Spec spec, String type, double[] alpha, Random random, FortranFormat line,
+            PrintWriter out) {
+        int n = alpha.length;
+        out.println(type + "   " + n + " 1.00");
+        double[][] c = new double[spec.contractions][];
+        for (int k = 0; k < spec.contractions; k++) {
+            c[k] = coefficients(spec, n, k, 0, random);
+        }
+        for (int i = 0; i < n; i++) {
+            line.appendZeroD(alpha[i], 10);
+            for (double[] column : c) {
+                line.append(column[i] < 0 ? " " : "  ").appendZeroD(column[i], 10);
+            }
+            line.println(out);
+        }
+    }
+    /**
+     * Coefficients of contraction k for component j: a bell over the
+     * exponents, moving to the diffuse end for higher k (higher contractions
+     * change sign over the tight primitives, as 2s does against 1s).
+     */
+    static double[] coefficients(Spec spec, int n, int k, int j, Random random) {
+        double center = (n - 1) * (0.35 + 0.15 * j + 0.2 * k) + random.nextGaussian();
+        double width = Math.max(1.5, n / 6.0);
+        double[] c = new double[n];
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            double x = (i - center) / width;
+            c[i] = Math.exp(-x * x);
+            if (k > 0 && i < center - width) {
+                c[i] = -0.3 * c[i] - 0.01;
+            }
+            sum += Math.abs(c[i]);
+        }
+        boolean positive = false;
+        for (int i = 0; i < n; i++) {
+            c[i] = round6(c[i] / sum);
+            if (random.nextDouble() < spec.negativeFraction) {
+                c[i] = -c[i];
+            }
+            positive |= c[i] > 0;
+        }
+        if (!positive) {
+            c[n - 1] = Math.abs(c[n - 1]);
+        }
+        return c;
+    }
+
+    private static double round6(double v) {
+        if (v == 0) {
+            return 0;
+        }
+        double scale = Math.pow(10, 5 - (int) Math.floor(Math.log10(Math.abs(v))));
+        return Math.round(v * scale) / scale;
+    }
+}
@@ -0,0 +1,300 @@
+/*
+ * BSD 3-Clause License
+ * 
+ * Copyright (c) 2025, M. Macernis
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation 
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors 
+ *    may be used to endorse or promote products derived from this software 
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE 
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER 
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, 
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE 
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package basissculpt.bench;
+
+import basissculpt.bin.BasisSculpt;
+import basissculpt.etc.Args;
+import basissculpt.etc.ArgsGet;
+import basissculpt.etc.BasisSculptException;
+import basissculpt.etc.Dic;
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * BasisSculpt - Sculpting Gaussian Basis Sets via Norm Control
+ *
+ * End-to-end throughput benchmark of BasisSculpt.start on generated basis
+ * libraries. Each scenario is generated (BasisGenerator, fixed seed), run
+ * once to warm up and then --repeat times; the best run gives atoms/s and
+ * primitives/s, the largest heap peak of the runs the peak heap.
+ *
+ * Results are compared with the baselines file: a different output digest,
+ * a throughput below baseline·(1 - tolerance) or a peak heap above
+ * baseline·(1 + tolerance) is a regression and the benchmark exits with 1.
+ * Timings depend on the machine, so the shared baselines hold digests
+ * only; --update-baselines --timings writes a baselines file with the
+ * timings of the machine that runs the comparison.
+ *
+ * <pre>
+ * java basissculpt.bench.Benchmark [--suite default|full] [--scenario name]
+ *      [--baselines bench/baselines.properties] [--tolerance 0.25]
+ *      [--repeat 2] [--update-baselines [--timings]]
+ * </pre>
+ *
+ * @author M. Macernis
+ * @version 2025.4.v1
+ */
+public class Benchmark {
+
+    private static final String DEFAULT_BASELINES = "bench/baselines.properties";
+
+    record Scenario(String name, String threshold, BasisGenerator.Spec spec, boolean normalize, boolean full) {
+    }
+
+    record Result(Scenario scenario, BasisGenerator.Totals totals, double seconds, long peakHeap, String digest) {
+
+        double atomsPerSecond() {
+            return totals.atoms / seconds;
+        }
+
+        double primitivesPerSecond() {
+            return totals.primitives / seconds;
+        }
+    }
+
+    static List<Scenario> scenarios() {
+        List<Scenario> list = new ArrayList<>();
+
+        BasisGenerator.Spec smoke = new BasisGenerator.Spec();
+        smoke.atoms = 2;
+        smoke.minPrimitives = 6;
+        smoke.maxPrimitives = 10;
+        smoke.shells = new String[]{"S", "SP", "D"};
+        list.add(new Scenario("smoke", "1e-4", smoke, true, false));
+
+        BasisGenerator.Spec tempered = new BasisGenerator.Spec();
+        tempered.atoms = 1;
+        tempered.minPrimitives = 12;
+        tempered.maxPrimitives = 16;
+        tempered.shells = new String[]{"S", "SPD"};
+        tempered.exponents = BasisGenerator.Exponents.WELL;
+        tempered.contractions = 2;
+        tempered.negativeFraction = 0.05;
+        tempered.seed = 2;
+        list.add(new Scenario("tempered", "1e-4", tempered, true, false));
+
+        // general contractions (multi-column S, P and SP shells) analysed without --normalize
+        BasisGenerator.Spec general = new BasisGenerator.Spec();
+        general.atoms = 1;
+        general.minPrimitives = 4;
+        general.maxPrimitives = 6;
+        general.shells = new String[]{"S", "SP", "P"};
+        general.contractions = 2;
+        general.general = true;
+        general.seed = 4;
+        list.add(new Scenario("general", "1e-4", general, false, false));
+
+        BasisGenerator.Spec scale = new BasisGenerator.Spec();
+        scale.atoms = 200;
+        scale.minPrimitives = 20;
+        scale.maxPrimitives = 60;
+        scale.shells = new String[]{"S", "S", "SP", "SPD", "D"};
+        scale.seed = 3;
+        list.add(new Scenario("scale", "1e-5", scale, true, true));
+
+        return list;
+    }
+
+    public static void main(String[] args) throws IOException {
+        ArgsGet argset = new ArgsGet(new Args(args));
+        try {
+            System.exit(run(argset) ? 0 : 1);
+        } catch (BasisSculptException ex) {
+            System.err.println(ex.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * @return false when a result regressed against its baseline
+     */
+    public static boolean run(ArgsGet args) throws IOException {
+        boolean full = "full".equalsIgnoreCase(args.getString("suite"));
+        String only = args.getString("scenario");
+        int repeat = args.getInt("repeat") != null ? Math.max(1, args.getInt("repeat")) : 2;
+        double tolerance = args.getDouble("tolerance") != null ? args.getDouble("tolerance") : 0.25;
+        File baselineFile = new File(args.isKey("baselines") ? args.getString("baselines") : DEFAULT_BASELINES);
+
+        Properties baselines = new Properties();
+        if (baselineFile.isFile()) {
+            try (Reader in = new FileReader(baselineFile)) {
+                baselines.load(in);
+            }
+        }
+
+        List<Result> results = new ArrayList<>();
+        for (Scenario scenario : scenarios()) {
+            if (only != null ? !only.equals(scenario.name()) : scenario.full() && !full) {
+                continue;
+            }
+            results.add(measure(scenario, repeat));
+        }
+        if (results.isEmpty()) {
+            throw new BasisSculptException(Dic.getMsg("ERROR_BENCH_SCENARIO", only));
+        }
+
+        System.out.println(String.format("%-10s %8s %10s %12s %12s %14s  %s",
+                "scenario", "atoms", "primitives", "seconds", "atoms/s", "primitives/s", "peak heap MB"));
+        boolean ok = true;
+        for (Result r : results) {
+            System.out.println(String.format(Locale.ROOT, "%-10s %8d %10d %12.3f %12.3f %14.2f  %.1f",
+                    r.scenario().name(), r.totals().atoms, r.totals().primitives, r.seconds(),
+                    r.atomsPerSecond(), r.primitivesPerSecond(), r.peakHeap() / 1048576.0));
+            ok &= check(r, baselines, tolerance);
+        }
+
+        if (args.isKey("update-baselines")) {
+            for (Result r : results) {
+                String key = r.scenario().name();
+                if (args.isKey("timings")) {
+                    baselines.setProperty(key + ".primitives-per-second", String.format(Locale.ROOT, "%.2f", r.primitivesPerSecond()));
+                    baselines.setProperty(key + ".peak-heap-mb", String.format(Locale.ROOT, "%.1f", r.peakHeap() / 1048576.0));
+                }
+                baselines.setProperty(key + ".output-sha256", r.digest());
+            }
+            File parent = baselineFile.getAbsoluteFile().getParentFile();
+            if (parent != null) {
+                parent.mkdirs();
+            }
+            try (Writer out = new FileWriter(baselineFile)) {
+                baselines.store(out, "BasisSculpt benchmark baselines (java basissculpt.bench.Benchmark --update-baselines)");
+            }
+            System.out.println(Dic.getMsg("INFO_BENCH_UPDATED", baselineFile.getPath()));
+            return true;
+        }
+        return ok;
+    }
+
+    static Result measure(Scenario scenario, int repeat) throws IOException {
+        Path dir = Files.createTempDirectory("basissculpt-bench-");
+        try {
+            File input = dir.resolve(scenario.name() + ".gbs").toFile();
+            BasisGenerator.Totals totals;
+            try (Writer out = new BufferedWriter(new FileWriter(input))) {
+                totals = BasisGenerator.generate(scenario.spec(), out);
+            }
+            File output = dir.resolve("output.gbs").toFile();
+            List<String> list = new ArrayList<>(List.of(
+                    "--input", input.getPath(),
+                    "--threshold", scenario.threshold(),
+                    "--output", output.getPath(),
+                    "--log", dir.resolve("log.txt").toString(),
+                    "--report", dir.resolve("report.txt").toString(),
+                    "--fixed-basis-name", scenario.name(),
+                    "--version-tag", "bench"));
+            if (scenario.normalize()) {
+                list.add("--normalize");
+            }
+            String[] args = list.toArray(String[]::new);
+
+            BasisSculpt.start(args); // warm-up
+            double best = Double.MAX_VALUE;
+            long peak = 0;
+            for (int i = 0; i < repeat; i++) {
+                System.gc();
+                resetPeaks();
+                long start = System.nanoTime();
+                BasisSculpt.start(args);
+                best = Math.min(best, (System.nanoTime() - start) / 1e9);
+                peak = Math.max(peak, heapPeak());
+            }
+            // without --normalize no basis is written: the removal tables are compared
+            File compared = scenario.normalize() ? output : dir.resolve("report.txt").toFile();
+            return new Result(scenario, totals, best, peak, digest(compared));
+        } finally {
+            try (var files = Files.walk(dir)) {
+                files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+            }
+        }
+    }
+
+    /**
+     * Timings are checked only when the baselines file holds them.
+     */
+    static boolean check(Result r, Properties baselines, double tolerance) {
+        String key = r.scenario().name();
+        boolean ok = true;
+        String pps = baselines.getProperty(key + ".primitives-per-second");
+        if (pps != null && r.primitivesPerSecond() < Double.parseDouble(pps) * (1 - tolerance)) {
+            System.out.println(Dic.getMsg("WARN_BENCH_REGRESSION", key, "primitives/s",
+                    String.format(Locale.ROOT, "%.2f", r.primitivesPerSecond()), pps));
+            ok = false;
+        }
+        String heap = baselines.getProperty(key + ".peak-heap-mb");
+        double heapMb = r.peakHeap() / 1048576.0;
+        if (heap != null && heapMb > Double.parseDouble(heap) * (1 + tolerance)) {
+            System.out.println(Dic.getMsg("WARN_BENCH_REGRESSION", key, "peak heap MB",
+                    String.format(Locale.ROOT, "%.1f", heapMb), heap));
+            ok = false;
+        }
+        String digest = baselines.getProperty(key + ".output-sha256");
+        if (digest != null && !digest.equals(r.digest())) {
+            System.out.println(Dic.getMsg("WARN_BENCH_REGRESSION", key, "output digest", r.digest(), digest));
+            ok = false;
+        }
+        return ok;
+    }
+
+    private static void resetPeaks() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    private static long heapPeak() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.isValid() && pool.getPeakUsage() != null) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    private static String digest(File file) throws IOException {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(Files.readAllBytes(file.toPath()));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
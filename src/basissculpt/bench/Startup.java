@@ -0,0 +1,182 @@
+/*
+ * BSD 3-Clause License
+ * 
+ * Copyright (c) 2025, M. Macernis
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation 
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors 
+ *    may be used to endorse or promote products derived from this software 
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE 
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER 
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, 
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE 
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package basissculpt.bench;
+
+import basissculpt.etc.Args;
+import basissculpt.etc.ArgsGet;
+import basissculpt.etc.BasisSculptException;
+import basissculpt.etc.Dic;
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * BasisSculpt - Sculpting Gaussian Basis Sets via Norm Control
+ *
+ * Startup profile: trains an AppCDS archive of the classes a run loads and
+ * measures the wall time of fresh JVMs with and without it. The training
+ * run analyses --input (examples/cc-pvdz/ccpvdz.gbs) under
+ * -XX:ArchiveClassesAtExit; the archive is specific to the JVM build and the
+ * jar, so it is generated when packaging rather than kept in the sources.
+ * The measured cases are --version, --help and a one-atom check (--atom H),
+ * each run --runs times per profile, interleaved; the median is reported.
+ * The profiles are the default JVM, the archive, and the archive with the
+ * C1 compiler only (-XX:TieredStopAtLevel=1), which suits short checks: a
+ * one-atom check is mostly warm-up, not JVM start.
+ *
+ * <pre>
+ * java -cp BasisSculpt.jar basissculpt.bench.Startup [--archive BasisSculpt.jsa]
+ *      [--input examples/cc-pvdz/ccpvdz.gbs] [--runs 7] [--train-only]
+ * </pre>
+ *
+ * CDS archives classes from jar files only; the class path must not contain
+ * directories.
+ *
+ * @author M. Macernis
+ * @version 2025.4.v1
+ */
+public class Startup {
+
+    private static final String DEFAULT_ARCHIVE = "BasisSculpt.jsa";
+    private static final String DEFAULT_INPUT = "examples/cc-pvdz/ccpvdz.gbs";
+    private static final String MAIN = "basissculpt.bin.BasisSculpt";
+
+    record Profile(String name, List<String> options) {
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        ArgsGet argset = new ArgsGet(new Args(args));
+        try {
+            run(argset);
+        } catch (BasisSculptException ex) {
+            System.err.println(ex.getMessage());
+            System.exit(1);
+        }
+    }
+
+    public static void run(ArgsGet args) throws IOException, InterruptedException {
+        File archive = new File(args.isKey("archive") ? args.getString("archive") : DEFAULT_ARCHIVE).getAbsoluteFile();
+        File input = new File(args.isKey("input") ? args.getString("input") : DEFAULT_INPUT).getAbsoluteFile();
+        int runs = args.getInt("runs") != null ? Math.max(1, args.getInt("runs")) : 7;
+        String classPath = System.getProperty("java.class.path");
+        for (String entry : classPath.split(File.pathSeparator)) {
+            if (new File(entry).isDirectory()) {
+                throw new BasisSculptException(Dic.getMsg("ERROR_STARTUP_CLASSPATH", entry));
+            }
+        }
+        if (!input.isFile()) {
+            throw new BasisSculptException(Dic.getMsg("ERROR_FILE_NOT_FOUND", input.getPath()));
+        }
+
+        Path dir = Files.createTempDirectory("basissculpt-startup-");
+        try {
+            List<String> analysis = List.of("--input", input.getPath(), "--threshold", "1e-5", "--normalize",
+                    "--output", dir.resolve("output.gbs").toString(),
+                    "--log", dir.resolve("log.txt").toString(),
+                    "--report", dir.resolve("report.txt").toString());
+            archive.delete();
+            long start = System.nanoTime();
+            launch(classPath, List.of("-XX:ArchiveClassesAtExit=" + archive.getPath()), analysis);
+            double trained = (System.nanoTime() - start) / 1e6;
+            if (!archive.isFile()) {
+                throw new BasisSculptException(Dic.getMsg("ERROR_STARTUP_RUN", "-XX:ArchiveClassesAtExit"));
+            }
+            System.out.println(Dic.getMsg("INFO_STARTUP_TRAINED", archive.getPath(), archive.length() / 1024, trained));
+            if (args.isKey("train-only")) {
+                return;
+            }
+
+            List<Profile> profiles = List.of(
+                    new Profile("default", List.of()),
+                    new Profile("archive", List.of("-XX:SharedArchiveFile=" + archive.getPath())),
+                    new Profile("archive+c1", List.of("-XX:SharedArchiveFile=" + archive.getPath(),
+                            "-XX:TieredStopAtLevel=1")));
+            Map<String, List<String>> cases = new LinkedHashMap<>();
+            cases.put("version", List.of("--version"));
+            cases.put("help", List.of("--help"));
+            cases.put("check", List.of("--input", input.getPath(), "--atom", "H", "--threshold", "1e-5",
+                    "--normalize", "--output", dir.resolve("check.gbs").toString(),
+                    "--log", dir.resolve("check.txt").toString()));
+
+            System.out.println(String.format("%-8s %12s %12s %12s %10s %10s",
+                    "case", "default ms", "archive ms", "+c1 ms", "archive", "+c1"));
+            for (Map.Entry<String, List<String>> c : cases.entrySet()) {
+                double[][] times = new double[profiles.size()][runs];
+                for (int i = 0; i < runs; i++) {
+                    for (int p = 0; p < profiles.size(); p++) {
+                        long t = System.nanoTime();
+                        launch(classPath, profiles.get(p).options(), c.getValue());
+                        times[p][i] = (System.nanoTime() - t) / 1e6;
+                    }
+                }
+                double base = median(times[0]);
+                double cds = median(times[1]);
+                double c1 = median(times[2]);
+                System.out.println(String.format(Locale.ROOT, "%-8s %12.0f %12.0f %12.0f %+9.0f%% %+9.0f%%",
+                        c.getKey(), base, cds, c1, 100 * (cds - base) / base, 100 * (c1 - base) / base));
+            }
+        } finally {
+            try (var files = Files.walk(dir)) {
+                files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+            }
+        }
+    }
+
+    /**
+     * Runs BasisSculpt in a fresh JVM; its output is discarded.
+     */
+    private static void launch(String classPath, List<String> options, List<String> args)
+            throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(options);
+        command.add("-cp");
+        command.add(classPath);
+        command.add(MAIN);
+        command.addAll(args);
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        if (process.waitFor() != 0) {
+            throw new BasisSculptException(Dic.getMsg("ERROR_STARTUP_RUN", String.join(" ", command)));
+        }
+    }
+
+    private static double median(double[] values) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int n = sorted.length;
+        return n % 2 == 1 ? sorted[n / 2] : (sorted[n / 2 - 1] + sorted[n / 2]) / 2;
+    }
+}
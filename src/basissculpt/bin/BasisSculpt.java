@@ -33,11 +33,22 @@ package basissculpt.bin;
 
 import basissculpt.etc.Args;
 import basissculpt.etc.ArgsGet;
+import basissculpt.etc.BasisSculptException;
 import basissculpt.etc.Dic;
+import basissculpt.etc.Events;
 import basissculpt.etc.Settings;
+import basissculpt.lib.BlockResult;
+import basissculpt.lib.read.BasisFormats;
+import basissculpt.lib.read.BasisLibrary;
 import basissculpt.lib.read.BasisParser;
 import basissculpt.lib.read.BasisPrinter;
+import basissculpt.lib.read.CostModel;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
 import java.util.List;
 
 /**
@@ -54,29 +65,22 @@ public class BasisSculpt {
     public static void main(String[] args) {
         try {
             start(args);
+        } catch (BasisSculptException ex) {
+            System.err.println(ex.getMessage());
+            System.exit(1);
         } catch (IOException ex) {
-        } finally {
-            LogFile log = LogFile.getInstance();
-            log.flush();
-            log.close();
-            Output out = Output.getInstance();
-            out.flush();
-            out.close();
-            Report report = Report.getInstance();
-            report.flush();
-            report.close();
+            System.err.println(ex.getMessage());
+            System.exit(1);
         }
     }
 
     public static void start(String[] args) throws IOException {
 
-        new ArgsGet(new Args(args));
-
-        ArgsGet argset = ArgsGet.getInstance();
+        ArgsGet argset = new ArgsGet(new Args(args));
 
         if (argset.isKey("version")) {
             System.out.println(basissculpt.etc.Version.codeVersion);
-            System.exit(0);
+            return;
         }
         if (argset.isKey("citation")) {
             System.out.println(String.format("""
@@ -91,7 +95,7 @@ If you use this tool in a scientific publication, please cite as:
     https://doi.org/10.1039/D5CP01681A                                          
                                              
 """, basissculpt.etc.Version.codeVersion));
-            System.exit(0);
+            return;
         }
 
         if (argset.isKey("license")) {
@@ -126,7 +130,7 @@ If you use this tool in a scientific publication, please cite as:
  OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE 
  OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
                                """);
-            System.exit(0);
+            return;
         }
 
         if (argset.isKey("help")) {
@@ -148,13 +152,31 @@ Usage:
     --input <input_file> \\
     --threshold <norm_tolerance> \\
     [--normalize] \\
+    [--refit] \\
+    [--fidelity] \\
+    [--sensitivity] \\
+    [--screen] \\
+    [--early-stop] \\
+    [--engine auto|bigdecimal|double-double] \\
+    [--summary [<K>]] \\
     [--output <output_file>] \\
     [--output-gbs-format yes|no] \\
     [--output-threshold <numeric_threshold>] \\
     [--log <log_file>] \\
     [--report <summary_file>] \\
+    [--results <file.jsonl|file.csv>] \\
     [--version-tag <tag>] \\
     [--fixed-basis-name <label>] \\
+    [--input-format gbs|bse-json|nwchem] \\
+    [--atom <symbol>] \\
+    [--write-library <file>] \\
+    [--checkpoint <file> [--resume]] \\
+    [--threads <n>] \\
+    [--queue <dir>] \\
+    [--estimate] \\
+    [--serve <port|socket>] \\
+    [--client <port|socket>] \\
+    [--log-level info|detail|verbose] \\
     [--verbose] \\
     [--help] \\
     [--license] \\
@@ -163,7 +185,29 @@ Usage:
 Arguments:
   --input <file>           Input basis set file (.gbs format)
   --threshold <value>      Maximum allowed deviation from original norm (e.g., 1e-8)
+                           A list (1e-3,1e-5) or a range of decades (1e-3:1e-10) runs a
+                           sweep: computed once, with removal decisions, report and
+                           reduced output per threshold (e.g. out.1e-5.gbs)
   --normalize              Enable post-analysis re-normalization
+  --refit                  Least-squares refit of the kept coefficients of a reduced
+                           shell (Cholesky on the overlap matrix); the fidelity of the
+                           refitted function is reported with each removal decision
+  --fidelity               Add the fidelity F of the normalized reduced function and
+                           1 - F (from the overlap matrix) to every removal row
+  --sensitivity            Report the analytic derivatives of the norm and of each
+                           primitive's loss with respect to its coefficient and exponent
+  --screen                 Bound every removal loss from the coefficients first; only
+                           primitives the bounds cannot decide against --threshold are
+                           integrated again, the others are taken from the overlap matrix
+  --early-stop             Stop integrating a removal once its decision against every
+                           threshold is certain; the row shows the norm and loss bounds
+  --engine auto|bigdecimal|double-double
+                           Arithmetic of the radial integrals: 'auto' takes the
+                           double-double kernel (about 32 digits, no BigDecimal per
+                           operation) for precisions of 17 to 31 digits. Default: auto
+  --summary [<K>]          End the report and log with a library-wide summary: the K
+                           most removable primitives (default 20), histograms of loss
+                           and contribution, and totals per shell type and element
   --output <file>          File to write the resulting basis set if set "normalize"
                            Default: stdout
   --output-gbs-format yes|no
@@ -178,8 +222,37 @@ Arguments:
   --log <file>             Write detailed diagnostic log to file
                            Default: stdout
   --report <file>          Write summary report with norm loss and contributions
+  --results <file>         Stream per block and per removal records at full precision
+                           as JSON Lines, or CSV when the file name ends with .csv
+  --results-format jsonl|csv
+                           Override the --results format chosen by the file name
   --version-tag <tag>      Custom tag to label this analysis
   --fixed-basis-name <str> Basis set name label for output
+  --input-format <name>    Format of --input: gbs, bse-json (Basis Set Exchange JSON)
+                           or nwchem; detected from the file name and content if not
+                           set. Further formats are added as BasisFormat services
+  --atom <symbol>          Analyse only the given atom (e.g., C)
+  --write-library <file>   Convert --input into a pre-parsed binary library and exit.
+                           Binary libraries are detected automatically by --input.
+  --checkpoint <file>      Append every finished atom to a journal (synced to disk)
+  --resume                 With --checkpoint: take the journaled atoms of an
+                           interrupted run instead of analysing them again; the
+                           final files are those of an uninterrupted run
+  --threads <n>            Analyse atoms and their shells on n threads (0: all
+                           processors), the most expensive first; the files are those
+                           of a run on one thread. Default: 1
+  --queue <dir>            Distributed run: every process started with the same
+                           arguments and queue directory (on a shared file system)
+                           claims atoms from it; the last one to finish writes the
+                           final files, those of a run in one process
+  --estimate               Print the predicted cost of every atom and in total, then
+                           exit without analysing
+  --serve <port|socket>    Keep a warm engine serving requests on a local TCP port
+                           or Unix-domain socket path
+  --client <port|socket>   Send this run to a --serve instance and write its results
+  --log-level info|detail|verbose
+                           Log detail: 'info' omits per-primitive lines,
+                           'verbose' equals --verbose. Default: detail
   --verbose                Enable verbose console output
   --help                   Show this help message and exits (other arguments ignored)
   --license                Displays the full BSD-3-Clause license text and exits. 
@@ -189,31 +262,201 @@ Example:
   %s --input def2svp.gbs --threshold 1e-8 --normalize --output def2svp_reduced.gbs
 
     """, basissculpt.etc.Version.codeVersion, compile, compile));
-            System.exit(0);
+            return;
+        }
+
+        if (argset.isKey("write-library")) {
+            writeLibrary(argset);
+            return;
+        }
+
+        if (argset.isKey("estimate")) {
+            estimate(argset);
+            return;
+        }
+
+        if (argset.isKey("serve")) {
+            new Server(argset).run();
+            return;
+        }
+
+        if (argset.isKey("client")) {
+            Client.run(argset, args);
+            return;
+        }
+
+        if (argset.isKey("queue")) {
+            new Queue(argset).run();
+            return;
+        }
+
+        try (Context ctx = new Context(argset)) {
+            ctx.settings.getInput(); // fails before anything is written
+            header(ctx);
+            analyse(ctx, load(ctx));
+        }
+    }
+
+    /**
+     * Reads the --input file (binary library, or text in the --input-format
+     * or detected format) and applies --atom.
+     */
+    public static List<BasisParser.AtomSection> load(Context ctx) throws IOException {
+        return load(ctx.args, ctx.settings, ctx.log.isEnabled(LogFile.Level.VERBOSE) ? ctx.log : null);
+    }
+
+    static List<BasisParser.AtomSection> load(ArgsGet argset, Settings settings, LogFile warnings)
+            throws IOException {
+        Events.Parse event = new Events.Parse();
+        event.begin();
+        File input = settings.getInput();
+        List<BasisParser.AtomSection> atoms = BasisLibrary.isLibrary(input)
+                ? BasisLibrary.open(input)
+                : BasisFormats.parse(input, argset.getString("input-format"), warnings,
+                        BasisFormats.atom(argset.getString("atom")));
+        atoms = select(argset, atoms);
+        int primitives = 0;
+        for (BasisParser.AtomSection atom : atoms) {
+            for (BasisParser.Block block : atom.blocks) {
+                primitives += block.lines.size();
+            }
+        }
+        event.finish(atoms.size() == 1 ? atoms.get(0).atom : "", "", primitives, 0, settings);
+        return atoms;
+    }
+
+    /**
+     * --estimate: predicted cost of every atom (CostModel) and in total,
+     * without analysing anything or opening the output files.
+     */
+    private static void estimate(ArgsGet argset) throws IOException {
+        Settings settings = new Settings(argset);
+        List<BasisParser.AtomSection> atoms = load(argset, settings, null);
+        CostModel model = new CostModel(argset, settings);
+        double[] costs = new double[atoms.size()];
+        double total = 0;
+        double largest = 0;
+        for (int i = 0; i < atoms.size(); i++) {
+            costs[i] = model.atom(atoms.get(i));
+            total += costs[i];
+            for (BasisParser.Block block : atoms.get(i).blocks) {
+                largest = Math.max(largest, model.block(block));
+            }
+        }
+        System.out.println(Dic.getMsg("INFO_ESTIMATE_HEADER", "Atom", "Shells", "Primitives", "Units", "Share"));
+        int shells = 0;
+        int primitives = 0;
+        for (int i = 0; i < atoms.size(); i++) {
+            BasisParser.AtomSection atom = atoms.get(i);
+            int rows = 0;
+            for (BasisParser.Block block : atom.blocks) {
+                rows += block.lines.size();
+            }
+            shells += atom.blocks.size();
+            primitives += rows;
+            System.out.println(Dic.getMsg("INFO_ESTIMATE_ATOM", atom.atom, atom.blocks.size(), rows, costs[i],
+                    total > 0 ? 100 * costs[i] / total : 0.0));
         }
+        System.out.println(Dic.getMsg("INFO_ESTIMATE_TOTAL", atoms.size(), shells, primitives, total,
+                settings.getPrecision()));
+        int threads = settings.getThreads();
+        if (threads > 1) {
+            System.out.println(Dic.getMsg("INFO_ESTIMATE_THREADS", threads, Math.max(total / threads, largest), largest));
+        }
+    }
+
+    /**
+     * Analyses the given atoms in the given context and returns the block
+     * results. Runs with separate contexts may execute concurrently.
+     */
+    public static List<BlockResult> analyse(Context ctx, List<BasisParser.AtomSection> atoms) {
+        List<BlockResult> results = new BasisPrinter(atoms, ctx).run();
+        ctx.summary.print(ctx.log, ctx.report);
+        ctx.flush();
+        return results;
+    }
 
-        LogFile log = LogFile.getInstance();
-        Report report = Report.getInstance();
+    /**
+     * Writes the run identification (tags and math precision) to the log and
+     * report.
+     */
+    public static void header(Context ctx) {
+        ArgsGet argset = ctx.args;
+        LogFile log = ctx.log;
+        Report report = ctx.report;
 
         if (argset.isKey("version-tag")) {
             String version = argset.getString("version-tag");
-            log.println(Dic.getMsg("INFO_VERSION_TAG", version));
+            log.info("INFO_VERSION_TAG", version);
             report.println(Dic.getMsg("INFO_VERSION_TAG", version));
         }
 
         if (argset.isKey("fixed-basis-name")) {
             String name = argset.getString("fixed-basis-name");
-            log.println(Dic.getMsg("INFO_FIXED_BASIS_NAME", name));
+            log.info("INFO_FIXED_BASIS_NAME", name);
             report.println(Dic.getMsg("INFO_FIXED_BASIS_NAME", name));
         }
 
-        int precision = Settings.getInstance().getMC().getPrecision();
-        log.println(Dic.getMsg("INFO_MATH_CONTEXT_PRECISION", precision));
+        int precision = ctx.settings.getPrecision();
+        log.info("INFO_MATH_CONTEXT_PRECISION", precision);
+        if (ctx.settings.isDoubleDouble()) {
+            log.info("INFO_DOUBLE_DOUBLE");
+        }
+    }
 
-        List<BasisParser.AtomSection> atoms = BasisParser
-                .parse(Settings.getInstance().getInput());
+    /**
+     * Applies --atom.
+     */
+    static List<BasisParser.AtomSection> select(ArgsGet argset, List<BasisParser.AtomSection> atoms) {
+        if (!argset.isKey("atom")) {
+            return atoms;
+        }
+        atoms = BasisLibrary.select(atoms, argset.getStringNotNull("atom"));
+        if (atoms.isEmpty()) {
+            throw new BasisSculptException(Dic.getMsg("ERROR_ATOM_NOT_FOUND", argset.getStringNotNull("atom")));
+        }
+        return atoms;
+    }
 
-        new BasisPrinter(atoms).run();
+    /**
+     * Converts the text input into the pre-parsed binary library format so
+     * that repeated runs can skip tokenizing the text.
+     */
+    private static void writeLibrary(ArgsGet argset) throws IOException {
+        File input = Settings.resolveInput(argset.getString("input"));
+        String path = argset.getStringNotNull("write-library");
+        File file = new File(path);
+        if (!file.isAbsolute()) {
+            file = new File(System.getProperty("user.dir"), path);
+        }
+        // atom by atom: the text library is never held as a whole
+        int atoms = 0;
+        try (BasisLibrary.Builder library = new BasisLibrary.Builder(file)) {
+            try (BufferedReader reader = new BufferedReader(new FileReader(input), 1 << 16)) {
+                BasisFormats.read(reader, argset.getString("input-format"), input.getName(), null, atom -> {
+                    try {
+                        library.add(atom);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (IOException e) {
+                // e.g. a JSON syntax error: the input cannot be read
+                throw new BasisSculptException(e.getMessage() + " (" + input.getPath() + ")", e);
+            }
+            atoms = library.size();
+        } catch (IOException | UncheckedIOException e) {
+            String msg = Dic.getMsg("ERROR_LIBRARY_FILE", path);
+            throw new BasisSculptException(msg, e);
+        } finally {
+            if (atoms == 0) {
+                Files.deleteIfExists(file.toPath()); // no partial library is left behind
+            }
+        }
+        if (atoms == 0) {
+            throw new BasisSculptException(Dic.getMsg("ERROR_INPUT_FILE_ATOMS", input.getPath()));
+        }
+        System.out.println(Dic.getMsg("INFO_LIBRARY_WRITTEN", file.getPath(), atoms));
     }
 
 }
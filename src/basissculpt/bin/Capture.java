@@ -0,0 +1,102 @@
+/*
+ * BSD 3-Clause License
+ * 
+ * Copyright (c) 2025, M. Macernis
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation 
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors 
+ *    may be used to endorse or promote products derived from this software 
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE 
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER 
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, 
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE 
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package basissculpt.bin;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * BasisSculpt - Sculpting Gaussian Basis Sets via Norm Control
+ *
+ * Writer of a run target (output, report, log, results) that, between
+ * start() and stop(), also keeps a copy of what it writes: the fragment of
+ * one atom for the checkpoint journal.
+ *
+ * @author M. Macernis
+ * @version 2025.4.v1
+ */
+final class Capture extends Writer {
+
+    private final Writer target;
+    private StringBuilder copy;
+
+    Capture(Writer target) {
+        this.target = target;
+    }
+
+    void start() {
+        copy = new StringBuilder();
+    }
+
+    /**
+     * The text written since start(), or null when not capturing.
+     */
+    String stop() {
+        String s = copy == null ? null : copy.toString();
+        copy = null;
+        return s;
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        target.write(cbuf, off, len);
+        if (copy != null) {
+            copy.append(cbuf, off, len);
+        }
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        target.write(str, off, len);
+        if (copy != null) {
+            copy.append(str, off, off + len);
+        }
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        target.write(c);
+        if (copy != null) {
+            copy.append((char) c);
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        target.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        target.close();
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * BSD 3-Clause License
+ * 
+ * Copyright (c) 2025, M. Macernis
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation 
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors 
+ *    may be used to endorse or promote products derived from this software 
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE 
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER 
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, 
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE 
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package basissculpt.bin;
+
+import basissculpt.etc.ArgsGet;
+import basissculpt.etc.BasisSculptException;
+import basissculpt.etc.Dic;
+import basissculpt.etc.Settings;
+import java.io.*;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * BasisSculpt - Sculpting Gaussian Basis Sets via Norm Control
+ *
+ * Thin client of the --serve mode: sends the arguments and the --input text
+ * and writes the returned log, report and output to the log, report and
+ * output targets named by the arguments of this invocation.
+ *
+ * @author M. Macernis
+ * @version 2025.4.v1
+ */
+public class Client {
+
+    public static void run(ArgsGet argset, String[] args) throws IOException {
+        String address = argset.getStringNotNull("client");
+        File input = Settings.resolveInput(argset.getString("input"));
+        SocketAddress socket = Server.socketAddress(address);
+
+        StringBuilder options = new StringBuilder();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--client")) {
+                if (i + 1 < args.length && !args[i + 1].startsWith("--")) {
+                    i++;
+                }
+                continue;
+            }
+            if (options.length() > 0) {
+                options.append('\t');
+            }
+            options.append(args[i]);
+        }
+
+        try (SocketChannel channel = socket instanceof UnixDomainSocketAddress
+                ? SocketChannel.open(StandardProtocolFamily.UNIX)
+                : SocketChannel.open()) {
+            try {
+                channel.connect(socket);
+            } catch (IOException e) {
+                String msg = Dic.getMsg("ERROR_CLIENT_CONNECT", address);
+                throw new BasisSculptException(msg, e);
+            }
+
+            Writer out = new BufferedWriter(new OutputStreamWriter(
+                    Channels.newOutputStream(channel), StandardCharsets.UTF_8));
+            out.write(options.toString());
+            out.write('\n');
+            out.write(Files.readString(input.toPath()));
+            out.flush();
+            channel.shutdownOutput();
+
+            BufferedReader in = new BufferedReader(new InputStreamReader(
+                    Channels.newInputStream(channel), StandardCharsets.UTF_8));
+            LogFile log = new LogFile(argset);
+            Report report = new Report(argset);
+            Output output = new Output(argset);
+            try {
+                receive(in, log, report, output);
+            } finally {
+                log.close();
+                report.close();
+                output.close();
+            }
+        }
+    }
+
+    private static void receive(BufferedReader in, LogFile log, Report report, Output output) throws IOException {
+        String section = null;
+        String line;
+        while ((line = in.readLine()) != null) {
+            if (line.equals(Server.END)) {
+                break;
+            }
+            if (line.startsWith(Server.ERROR)) {
+                throw new BasisSculptException(line.substring(Server.ERROR.length()).trim());
+            }
+            if (line.equals(Server.LOG) || line.equals(Server.REPORT) || line.equals(Server.OUTPUT)) {
+                section = line;
+                continue;
+            }
+            if (Server.LOG.equals(section)) {
+                log.println(line);
+            } else if (Server.REPORT.equals(section)) {
+                report.println(line);
+            } else if (Server.OUTPUT.equals(section)) {
+                output.println(line);
+            }
+        }
+    }
+}
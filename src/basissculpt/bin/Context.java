@@ -0,0 +1,220 @@
+/*
+ * BSD 3-Clause License
+ * 
+ * Copyright (c) 2025, M. Macernis
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation 
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors 
+ *    may be used to endorse or promote products derived from this software 
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE 
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER 
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, 
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE 
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package basissculpt.bin;
+
+import basissculpt.etc.ArgsGet;
+import basissculpt.etc.Events;
+import basissculpt.etc.Settings;
+import java.io.Writer;
+import java.math.MathContext;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * BasisSculpt - Sculpting Gaussian Basis Sets via Norm Control
+ *
+ * Everything one run needs: the arguments, the settings derived from them
+ * and the log, report and output targets. Each run gets its own context, so
+ * several runs may share a JVM and execute concurrently.
+ *
+ * @author M. Macernis
+ * @version 2025.4.v1
+ */
+public class Context implements AutoCloseable {
+
+    public final ArgsGet args;
+    public final Settings settings;
+    public final LogFile log;
+    public final Report report;
+    public final Output out;
+    public final Results results;
+    public final Sweep sweep;
+    public final Journal journal;
+    public final Summary summary;
+
+    /**
+     * Context of a command line run: log, report and output go to the files
+     * (or stdout) named by the arguments.
+     */
+    public Context(ArgsGet args) {
+        this(args, (Journal) null);
+    }
+
+    /**
+     * Context of a command line run taking finished atoms from the given
+     * journal instead of --checkpoint, e.g. the merge of a distributed run
+     * (--queue).
+     */
+    Context(ArgsGet args, Journal journal) {
+        this.args = args;
+        this.settings = new Settings(args);
+        // checked before any target is truncated
+        this.journal = journal != null ? journal : new Journal(args, settings);
+        this.log = new LogFile(args);
+        this.report = new Report(args);
+        this.out = new Output(args);
+        this.results = new Results(args);
+        this.sweep = new Sweep(args, settings);
+        this.summary = new Summary(args, settings);
+    }
+
+    /**
+     * Context writing log, report and output to the given targets, e.g. for
+     * embedding or for one request of the --serve mode. Results still go to
+     * the --results file, if any; there is no checkpoint journal.
+     */
+    public Context(ArgsGet args, Writer log, Writer report, Writer out) {
+        this.args = args;
+        this.settings = new Settings(args);
+        this.log = new LogFile(args, log);
+        this.report = new Report(report);
+        this.out = new Output(args, out);
+        this.results = new Results(args);
+        this.sweep = new Sweep(args, settings);
+        this.summary = new Summary(args, settings);
+        this.journal = Journal.none();
+    }
+
+    /**
+     * Context of one atom or shell analysed on a worker thread (--threads)
+     * or by a worker of a distributed run (--queue): the targets kept in
+     * memory until fragments() hands them over to be written in order.
+     */
+    private Context(ArgsGet args, Settings settings) {
+        this.args = args;
+        this.settings = settings;
+        this.log = new LogFile(args, Writer.nullWriter());
+        this.report = args.isKey("report") ? new Report(Writer.nullWriter()) : new Report(args);
+        this.out = new Output(args, Writer.nullWriter());
+        this.results = new Results(args, Writer.nullWriter());
+        this.sweep = new Sweep(args, settings, Writer.nullWriter());
+        this.summary = new Summary(args, settings);
+        this.journal = Journal.none();
+        startCapture();
+    }
+
+    public Context worker() {
+        return new Context(args, settings);
+    }
+
+    /**
+     * Context keeping everything in memory, opening no file.
+     */
+    public static Context capturing(ArgsGet args) {
+        return new Context(args, new Settings(args));
+    }
+
+    /**
+     * Text written to the targets of a worker context, by target name as
+     * for replay(); closes the context.
+     */
+    public Map<String, String> fragments() {
+        Map<String, String> fragments = stopCapture();
+        close();
+        return fragments;
+    }
+
+    public MathContext mc() {
+        return settings.getMC();
+    }
+
+    public void flush() {
+        Events.Flush event = new Events.Flush();
+        event.begin();
+        log.flush();
+        out.flush();
+        report.flush();
+        results.flush();
+        sweep.flush();
+        event.finish("", "", 0, 0, settings);
+    }
+
+    /**
+     * Starts keeping a copy of everything written to the targets, e.g. one
+     * atom for the checkpoint journal.
+     */
+    public void startCapture() {
+        log.startCapture();
+        out.startCapture();
+        report.startCapture();
+        results.startCapture();
+        sweep.startCapture();
+        summary.startCapture();
+    }
+
+    /**
+     * The text written to each target since startCapture(), by target name.
+     */
+    public Map<String, String> stopCapture() {
+        Map<String, String> fragments = new LinkedHashMap<>();
+        fragments.put("log", log.stopCapture());
+        fragments.put("out", out.stopCapture());
+        fragments.put("report", report.stopCapture());
+        fragments.put("results", results.stopCapture());
+        sweep.stopCapture(fragments);
+        fragments.put("summary", summary.stopCapture());
+        fragments.values().removeIf(Objects::isNull);
+        return fragments;
+    }
+
+    /**
+     * Writes fragments of an earlier run (resume) to the targets.
+     */
+    public void replay(Map<String, String> fragments) {
+        fragments.forEach((name, text) -> {
+            switch (name) {
+                case "log" -> log.replay(text);
+                case "out" -> out.print(text);
+                case "report" -> report.print(text);
+                case "results" -> results.replay(text);
+                case "summary" -> summary.replay(text);
+                default -> {
+                }
+            }
+        });
+        sweep.replay(fragments);
+    }
+
+    @Override
+    public void close() {
+        journal.close();
+        log.flush();
+        log.close();
+        out.flush();
+        out.close();
+        report.flush();
+        report.close();
+        results.close();
+        sweep.close();
+    }
+}
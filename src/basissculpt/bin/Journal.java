@@ -0,0 +1,348 @@
+/*
+ * BSD 3-Clause License
+ * 
+ * Copyright (c) 2025, M. Macernis
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation 
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors 
+ *    may be used to endorse or promote products derived from this software 
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE 
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER 
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, 
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE 
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package basissculpt.bin;
+
+import basissculpt.etc.ArgsGet;
+import basissculpt.etc.BasisSculptException;
+import basissculpt.etc.Dic;
+import basissculpt.etc.Settings;
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * BasisSculpt - Sculpting Gaussian Basis Sets via Norm Control
+ *
+ * Append-only checkpoint journal of a run (--checkpoint &lt;file&gt;). Each
+ * finished atom is appended as one record holding the text it wrote to
+ * every target (log, report, output, results, sweep levels) and synced to
+ * disk. With --resume the journaled atoms are not analysed again: their
+ * fragments are written as they are, so the final files are the same as
+ * those of an uninterrupted run. Layout (big-endian):
+ *
+ * <pre>
+ * int magic "BSJL", int version, UTF run fingerprint
+ * record: int "ATOM", int atom index, UTF atom label, int fragment count,
+ *         per fragment: UTF target name, int length, UTF-8 bytes;
+ *         int "END!"
+ * </pre>
+ *
+ * A record cut short by an interruption is dropped and overwritten. The
+ * fingerprint (arguments but LOCAL ones, input file size and time) must
+ * match, so a journal is never replayed into a different run.
+ *
+ * @author M. Macernis
+ * @version 2025.4.v1
+ */
+public class Journal implements AutoCloseable {
+
+    /**
+     * Arguments that do not change the output: left out of the fingerprint,
+     * so a run may be resumed (or joined through --queue) with another
+     * thread count or checkpoint file.
+     */
+    static final Set<String> LOCAL = Set.of("resume", "checkpoint", "threads");
+
+    private static final int MAGIC = 0x42534A4C; // "BSJL"
+    private static final int VERSION = 1;
+    private static final int RECORD = 0x41544F4D; // "ATOM"
+    private static final int END = 0x454E4421; // "END!"
+
+    record Entry(String atom, Map<String, String> fragments) {
+    }
+
+    private final File file;
+    private final Map<Integer, Entry> done = new HashMap<>();
+    private FileOutputStream stream;
+
+    private Journal() {
+        this.file = null;
+    }
+
+    private Journal(File file, Map<Integer, Entry> done) {
+        this.file = file;
+        this.done.putAll(done);
+    }
+
+    public Journal(ArgsGet args, Settings settings) {
+        if (!args.isKey("checkpoint")) {
+            this.file = null;
+            return;
+        }
+        String path = args.getStringNotNull("checkpoint");
+        File f = new File(path);
+        if (!f.isAbsolute()) {
+            f = new File(System.getProperty("user.dir"), path);
+        }
+        this.file = f;
+        String fingerprint = fingerprint(args, settings, LOCAL);
+        try {
+            long valid = 0;
+            if (args.isKey("resume") && file.isFile() && file.length() > 0) {
+                valid = load(fingerprint);
+            }
+            if (valid == 0) {
+                done.clear();
+                try (DataOutputStream out = new DataOutputStream(new FileOutputStream(file))) {
+                    out.writeInt(MAGIC);
+                    out.writeInt(VERSION);
+                    out.writeUTF(fingerprint);
+                }
+            } else {
+                try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+                    channel.truncate(valid); // drop a record cut short
+                }
+            }
+            this.stream = new FileOutputStream(file, true);
+            if (!done.isEmpty()) {
+                System.err.println(Dic.getMsg("INFO_CHECKPOINT_RESUME", done.size(), file.getPath()));
+            }
+        } catch (IOException e) {
+            throw new BasisSculptException(Dic.getMsg("ERROR_CHECKPOINT_FILE", path), e);
+        }
+    }
+
+    /**
+     * Journal of a run without --checkpoint.
+     */
+    public static Journal none() {
+        return new Journal();
+    }
+
+    /**
+     * Journal of finished atoms kept elsewhere, e.g. the parts of a
+     * distributed run (--queue) being merged; nothing is appended.
+     */
+    static Journal replaying(File source, Map<Integer, Entry> done) {
+        return new Journal(source, done);
+    }
+
+    public boolean isActive() {
+        return stream != null;
+    }
+
+    /**
+     * Number of atoms taken from the journal (--resume).
+     */
+    public int journaled() {
+        return done.size();
+    }
+
+    /**
+     * True when the atom is taken from the journal (--resume).
+     */
+    public boolean isJournaled(int index) {
+        return done.containsKey(index);
+    }
+
+    /**
+     * Writes the journaled fragments of the atom to the targets of the
+     * context. Returns false when the atom is not journaled.
+     */
+    public boolean replay(int index, String atom, Context ctx) {
+        Entry entry = done.get(index);
+        if (entry == null) {
+            return false;
+        }
+        if (!entry.atom().equals(atom)) {
+            throw new BasisSculptException(Dic.getMsg("ERROR_CHECKPOINT_MISMATCH", file.getPath(), index + 1, atom));
+        }
+        ctx.replay(entry.fragments());
+        return true;
+    }
+
+    /**
+     * Starts recording the atom about to be analysed.
+     */
+    public void begin(Context ctx) {
+        if (isActive()) {
+            ctx.startCapture();
+        }
+    }
+
+    /**
+     * Appends the finished atom with everything it wrote since begin().
+     */
+    public void commit(int index, String atom, Context ctx) {
+        if (!isActive()) {
+            return;
+        }
+        byte[] bytes = record(index, atom, ctx.stopCapture());
+        try {
+            ctx.flush(); // the targets are at least as far as the journal
+            stream.write(bytes);
+            stream.flush();
+            stream.getChannel().force(false);
+        } catch (IOException e) {
+            throw new BasisSculptException(Dic.getMsg("ERROR_CHECKPOINT_FILE", file.getPath()), e);
+        }
+    }
+
+    /**
+     * Reads the complete records; returns the length of the valid part, 0
+     * when the journal is empty or unreadable (a fresh one is started).
+     */
+    private long load(String fingerprint) throws IOException {
+        try (CountingInput counting = new CountingInput(new BufferedInputStream(new FileInputStream(file)));
+                DataInputStream in = new DataInputStream(counting)) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new BasisSculptException(Dic.getMsg("ERROR_CHECKPOINT_FORMAT", file.getPath()));
+            }
+            if (!in.readUTF().equals(fingerprint)) {
+                throw new BasisSculptException(Dic.getMsg("ERROR_CHECKPOINT_RUN", file.getPath()));
+            }
+            long valid = counting.count;
+            while (true) {
+                try {
+                    if (!read(in, done)) {
+                        break;
+                    }
+                    valid = counting.count;
+                } catch (EOFException e) {
+                    break; // cut short by an interruption
+                }
+            }
+            return valid;
+        } catch (EOFException e) {
+            return 0; // not even a header
+        }
+    }
+
+    /**
+     * One finished atom in the journal layout, from "ATOM" to "END!".
+     */
+    static byte[] record(int index, String atom, Map<String, String> fragments) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(RECORD);
+            out.writeInt(index);
+            out.writeUTF(atom);
+            out.writeInt(fragments.size());
+            for (Map.Entry<String, String> f : fragments.entrySet()) {
+                byte[] text = f.getValue().getBytes(StandardCharsets.UTF_8);
+                out.writeUTF(f.getKey());
+                out.writeInt(text.length);
+                out.write(text);
+            }
+            out.writeInt(END);
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // in memory
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Reads one record into done; false when it is not a complete record.
+     */
+    static boolean read(DataInputStream in, Map<Integer, Entry> done) throws IOException {
+        if (in.readInt() != RECORD) {
+            return false;
+        }
+        int index = in.readInt();
+        String atom = in.readUTF();
+        int count = in.readInt();
+        Map<String, String> fragments = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            String name = in.readUTF();
+            byte[] text = new byte[in.readInt()];
+            in.readFully(text);
+            fragments.put(name, new String(text, StandardCharsets.UTF_8));
+        }
+        if (in.readInt() != END) {
+            return false;
+        }
+        done.put(index, new Entry(atom, fragments));
+        return true;
+    }
+
+    /**
+     * The arguments but the ignored ones, input file size and time.
+     */
+    static String fingerprint(ArgsGet args, Settings settings, Set<String> ignored) {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, String> e : args.asMap().entrySet()) {
+            if (!ignored.contains(e.getKey())) {
+                sb.append("--").append(e.getKey());
+                if (e.getValue() != null) {
+                    sb.append(' ').append(e.getValue());
+                }
+                sb.append(' ');
+            }
+        }
+        File input = settings.getInput();
+        sb.append("| ").append(input.length()).append(' ').append(input.lastModified());
+        return sb.toString();
+    }
+
+    @Override
+    public void close() {
+        if (stream != null) {
+            try {
+                stream.close();
+            } catch (IOException e) {
+                // every record is already synced
+            }
+        }
+    }
+
+    /**
+     * Bytes read so far, to find the end of the last complete record.
+     */
+    private static final class CountingInput extends FilterInputStream {
+
+        long count;
+
+        CountingInput(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+    }
+}
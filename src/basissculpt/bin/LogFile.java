@@ -32,62 +32,264 @@
 package basissculpt.bin;
 
 import basissculpt.etc.ArgsGet;
+import basissculpt.etc.BasisSculptException;
 import basissculpt.etc.Dic;
 import java.io.*;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 /**
  * BasisSculpt - Sculpting Gaussian Basis Sets via Norm Control
  *
+ * Log with levels: INFO (run structure and norms), DETAIL (per primitive
+ * lines, the default) and VERBOSE (--verbose). Messages of disabled levels
+ * are never formatted; enabled ones are queued in a bounded ring buffer and
+ * formatted and written by a background writer. {@link #flush()} waits until
+ * everything queued so far is written, {@link #close()} drains and closes.
+ * A message that cannot be formatted does not stop the writer; the failure
+ * is thrown by the next flush(). Should the writer die anyway, put() and
+ * flush() no longer wait for it.
+ *
  * @author M. Macernis
  * @version 2025.4.v1
  */
-public class LogFile {
+public final class LogFile {
+
+    public enum Level {
+        INFO, DETAIL, VERBOSE
+    }
+
+    private static final int CAPACITY = 4096;
+    private static final String NL = System.lineSeparator();
+    private static final Object CLOSE = new Object();
+    private static final long POLL = 100; // ms between checks that the writer is alive
 
-    private static LogFile instance;
-    private final PrintWriter writer;
+    private final Level level;
+    private final Capture writer;
+    private final BlockingQueue<Object> ring = new ArrayBlockingQueue<>(CAPACITY);
+    private final Thread worker;
+    private final Thread hook;
+    private volatile boolean closed;
+    private volatile RuntimeException failure; // of a queued message, thrown by flush()
 
-    private LogFile() {
-        if (ArgsGet.getInstance().isKey("log")) {
-            String path = ArgsGet.getInstance().getString("log");
+    private record Message(String key, Object[] args) {
+    }
+
+    public LogFile(ArgsGet args) {
+        this.level = level(args);
+        if (args.isKey("log")) {
+            String path = args.getString("log");
             try {
                 File file = new File(path);
                 if (!file.isAbsolute()) {
                     file = new File(System.getProperty("user.dir"), path);
                 }
-                this.writer = new PrintWriter(new FileWriter(file));
+                this.writer = new Capture(new BufferedWriter(new FileWriter(file)));
             } catch (IOException e) {
                 String msg = Dic.getMsg("ERROR_LOG_FILE", path);
-                throw new RuntimeException(msg, e);
+                throw new BasisSculptException(msg, e);
             }
         } else {
-            this.writer = new PrintWriter(System.out, true);
+            this.writer = new Capture(new BufferedWriter(new OutputStreamWriter(System.out)));
         }
+        this.worker = writerThread();
+        // guaranteed flush when the JVM exits without close()
+        this.hook = new Thread(this::close);
+        Runtime.getRuntime().addShutdownHook(hook);
     }
 
-    public static LogFile getInstance() {
-        if (instance == null) {
-            instance = new LogFile();
+    public LogFile(ArgsGet args, Writer target) {
+        this.level = level(args);
+        this.writer = new Capture(target);
+        this.worker = writerThread();
+        this.hook = null;
+    }
+
+    /**
+     * The background writer: a daemon platform thread, as starting the
+     * virtual thread scheduler would add some 20 ms to every short run.
+     */
+    private Thread writerThread() {
+        return Thread.ofPlatform().daemon().name("basissculpt-log").start(this::drain);
+    }
+
+    /**
+     * --log-level info|detail|verbose; --verbose selects verbose.
+     */
+    private static Level level(ArgsGet args) {
+        if (args.isKey("verbose")) {
+            return Level.VERBOSE;
         }
-        return instance;
+        String value = args.getString("log-level");
+        if (value == null) {
+            return Level.DETAIL;
+        }
+        try {
+            return Level.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BasisSculptException(Dic.getMsg("ERROR_LOG_LEVEL", value));
+        }
+    }
+
+    public boolean isEnabled(Level level) {
+        return level.compareTo(this.level) <= 0;
     }
 
     public void println(Object s) {
-        writer.println(s);
+        put(String.valueOf(s) + NL);
+    }
+
+    public void println(Level level, Object s) {
+        if (isEnabled(level)) {
+            put(String.valueOf(s) + NL);
+        }
+    }
+
+    /**
+     * Dic message at INFO level, formatted by the writer.
+     */
+    public void info(String key, Object... args) {
+        put(new Message(key, args));
+    }
+
+    public void detail(String key, Object... args) {
+        if (isEnabled(Level.DETAIL)) {
+            put(new Message(key, args));
+        }
+    }
+
+    public void verbose(String key, Object... args) {
+        if (isEnabled(Level.VERBOSE)) {
+            put(new Message(key, args));
+        }
     }
 
     public void printf(String format, Object... args) {
-        writer.printf(format, args);
+        put(String.format(format, args));
     }
 
     public void print(String s) {
-        writer.print(s);
+        put(s);
     }
 
     public void flush() {
-        writer.flush();
+        if (closed) {
+            return;
+        }
+        CountDownLatch done = new CountDownLatch(1);
+        put(done);
+        try {
+            while (!done.await(POLL, TimeUnit.MILLISECONDS) && worker.isAlive()) {
+                // the writer is still working through the queue
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        RuntimeException e = failure;
+        if (e != null) {
+            failure = null;
+            throw new BasisSculptException(Dic.getMsg("ERROR_LOG_MESSAGE", e.getMessage()), e);
+        }
+    }
+
+    /**
+     * Starts keeping a copy of the written log (checkpoint journal); the
+     * messages queued before are written first.
+     */
+    public void startCapture() {
+        flush();
+        writer.start();
+    }
+
+    /**
+     * The log written since startCapture(), once everything queued is
+     * written.
+     */
+    public String stopCapture() {
+        flush();
+        return writer.stop();
+    }
+
+    /**
+     * Log of an earlier run (resume), written as it is.
+     */
+    public void replay(String text) {
+        put(text);
+    }
+
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        put(CLOSE);
+        closed = true;
+        try {
+            worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            writer.close();
+        } catch (IOException e) {
+            // as PrintWriter, errors of the log target are not fatal
+        }
+        if (hook != null && Thread.currentThread() != hook) {
+            try {
+                Runtime.getRuntime().removeShutdownHook(hook);
+            } catch (IllegalStateException e) {
+                // already shutting down
+            }
+        }
     }
 
-    public void close() {
-        writer.close();
+    private void put(Object entry) {
+        if (closed) {
+            return;
+        }
+        try {
+            while (!ring.offer(entry, POLL, TimeUnit.MILLISECONDS)) {
+                if (!worker.isAlive()) {
+                    return; // nobody takes it any more
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void drain() {
+        try {
+            while (true) {
+                Object entry = ring.take();
+                try {
+                    if (entry == CLOSE) {
+                        writer.flush();
+                        return;
+                    } else if (entry instanceof CountDownLatch done) {
+                        try {
+                            writer.flush();
+                        } finally {
+                            done.countDown();
+                        }
+                    } else if (entry instanceof Message m) {
+                        writer.write(Dic.getMsg(m.key(), m.args()));
+                        writer.write(NL);
+                    } else {
+                        writer.write((String) entry);
+                    }
+                } catch (IOException e) {
+                    // as PrintWriter, errors of the log target are not fatal
+                } catch (RuntimeException e) {
+                    if (failure == null) {
+                        failure = e; // e.g. a bad format argument, reported by flush()
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
     }
 }
@@ -32,6 +32,7 @@
 package basissculpt.bin;
 
 import basissculpt.etc.ArgsGet;
+import basissculpt.etc.BasisSculptException;
 import basissculpt.etc.Dic;
 import java.io.*;
 
@@ -43,38 +44,49 @@ import java.io.*;
  */
 public class Output {
 
-    private static Output instance;
     private final PrintWriter writer;
+    private Capture capture;
 
-    private Output() {
-        if (!ArgsGet.getInstance().isKey("normalize")) {
+    public Output(ArgsGet args) {
+        if (!args.isKey("normalize")) {
             this.writer = null; // visi println bus ignoruojami
             return;
         }
 
-        if (ArgsGet.getInstance().isKey("output")) {
-            String path = ArgsGet.getInstance().getString("output");
-            try {
-                File file = new File(path);
-                if (!file.isAbsolute()) {
-                    file = new File(System.getProperty("user.dir"), path);
-                }
-                this.writer = new PrintWriter(new FileWriter(file));
-            } catch (IOException e) {
-                String msg = Dic.getMsg("ERROR_OUTPUT_FILE", path);
-                throw new RuntimeException(msg, e);
-            }
+        if (args.isKey("output")) {
+            this.writer = open(args.getString("output"));
         } else {
             //force to use flush method
-            this.writer = new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out)));
+            this.writer = new PrintWriter(capture = new Capture(new BufferedWriter(new OutputStreamWriter(System.out))));
         }
     }
 
-    public static Output getInstance() {
-        if (instance == null) {
-            instance = new Output();
+    /**
+     * Output written to the given target; as for the file/stdout target it is
+     * only produced with --normalize.
+     */
+    public Output(ArgsGet args, Writer target) {
+        this.writer = args.isKey("normalize") ? new PrintWriter(capture = new Capture(target)) : null;
+    }
+
+    /**
+     * Output written to the given file, e.g. one level of a threshold sweep.
+     */
+    public Output(String path) {
+        this.writer = open(path);
+    }
+
+    private PrintWriter open(String path) {
+        try {
+            File file = new File(path);
+            if (!file.isAbsolute()) {
+                file = new File(System.getProperty("user.dir"), path);
+            }
+            return new PrintWriter(capture = new Capture(new FileWriter(file)));
+        } catch (IOException e) {
+            String msg = Dic.getMsg("ERROR_OUTPUT_FILE", path);
+            throw new BasisSculptException(msg, e);
         }
-        return instance;
     }
 
     public void println(Object s) {
@@ -83,6 +95,13 @@ public class Output {
         }
     }
 
+    public void println(char[] chars, int length) {
+        if (writer != null) {
+            writer.write(chars, 0, length);
+            writer.println();
+        }
+    }
+
     public void printf(String format, Object... args) {
         if (writer != null) {
             writer.printf(format, args);
@@ -95,6 +114,22 @@ public class Output {
         }
     }
 
+    /**
+     * Starts keeping a copy of the written text (checkpoint journal).
+     */
+    public void startCapture() {
+        if (capture != null) {
+            capture.start();
+        }
+    }
+
+    /**
+     * The text written since startCapture(), or null without a target.
+     */
+    public String stopCapture() {
+        return capture == null ? null : capture.stop();
+    }
+
     public void flush() {
         if (writer != null) {
             writer.flush();
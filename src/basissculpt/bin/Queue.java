@@ -0,0 +1,357 @@
+/*
+ * BSD 3-Clause License
+ * 
+ * Copyright (c) 2025, M. Macernis
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation 
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors 
+ *    may be used to endorse or promote products derived from this software 
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE 
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER 
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, 
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE 
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package basissculpt.bin;
+
+import basissculpt.etc.ArgsGet;
+import basissculpt.etc.BasisSculptException;
+import basissculpt.etc.Dic;
+import basissculpt.etc.Settings;
+import basissculpt.lib.read.BasisParser;
+import basissculpt.lib.read.BasisPrinter;
+import basissculpt.lib.read.CostModel;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * BasisSculpt - Sculpting Gaussian Basis Sets via Norm Control
+ *
+ * Distributed run over a shared directory (--queue &lt;dir&gt;): the same
+ * command started on any number of hosts, with no coordinator. The first
+ * worker builds the queue in a private directory and renames it into place,
+ * so the others find it complete or not at all:
+ *
+ * <pre>
+ * run              fingerprint of the arguments and the input
+ * todo/000042      one item per atom, by input index
+ * claimed/000042@host@pid
+ * done/000042      the finished atom, a checkpoint journal record
+ * merging, merged  lock and mark of the merge
+ * </pre>
+ *
+ * An item is claimed by an atomic rename from todo to claimed, the most
+ * expensive first (CostModel), and analysed in a capturing context; its
+ * fragments are written to a temporary file and renamed into done. Claims
+ * of stopped workers on the same host are put back. The worker finishing
+ * the last item creates the merge lock and writes the final files by
+ * replaying the parts in input order, as --resume does, so they are those
+ * of a run in one process. --threads runs that many workers in the process.
+ *
+ * @author M. Macernis
+ * @version 2025.4.v1
+ */
+public class Queue {
+
+    private static final String RUN = "run";
+    private static final String TODO = "todo";
+    private static final String CLAIMED = "claimed";
+    private static final String DONE = "done";
+    private static final String MERGING = "merging";
+    private static final String MERGED = "merged";
+
+    private final ArgsGet args;
+    private final Settings settings;
+    private final Path dir;
+    private final String host;
+    private final String worker;
+
+    public Queue(ArgsGet args) {
+        String path = args.getString("queue");
+        if (path == null || path.isBlank()) {
+            throw new BasisSculptException(Dic.getMsg("ERROR_QUEUE_DIR", String.valueOf(path)));
+        }
+        this.args = args;
+        this.settings = new Settings(args);
+        this.dir = Path.of(path).toAbsolutePath().normalize();
+        this.host = host();
+        this.worker = host + "@" + ProcessHandle.current().pid();
+    }
+
+    public void run() throws IOException {
+        List<BasisParser.AtomSection> atoms = BasisSculpt.load(args, settings, null);
+        open(atoms);
+        if (Files.exists(dir.resolve(MERGED))) {
+            System.err.println(Dic.getMsg("INFO_QUEUE_MERGED_BEFORE", dir, dir.resolve(MERGED)));
+            return;
+        }
+
+        CostModel cost = new CostModel(args, settings);
+        List<Integer> order = new ArrayList<>();
+        double[] costs = new double[atoms.size()];
+        for (int i = 0; i < atoms.size(); i++) {
+            order.add(i);
+            costs[i] = cost.atom(atoms.get(i));
+        }
+        order.sort(Comparator.comparingDouble((Integer i) -> costs[i]).reversed());
+
+        int threads = settings.getThreads();
+        if (threads <= 1) {
+            work(atoms, order);
+        } else {
+            ExecutorService pool = Executors.newFixedThreadPool(threads);
+            try {
+                List<Future<Void>> workers = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    workers.add(pool.submit(() -> {
+                        work(atoms, order);
+                        return null;
+                    }));
+                }
+                for (Future<Void> f : workers) {
+                    await(f);
+                }
+            } finally {
+                pool.shutdownNow();
+            }
+        }
+
+        int done = names(DONE).size();
+        if (done < atoms.size()) {
+            System.err.println(Dic.getMsg("INFO_QUEUE_WAITING", dir, done, atoms.size()));
+            return;
+        }
+        merge(atoms);
+    }
+
+    /**
+     * Creates the queue, unless another worker was first, and checks that
+     * it belongs to this run.
+     */
+    private void open(List<BasisParser.AtomSection> atoms) throws IOException {
+        String fingerprint = Journal.fingerprint(args, settings, Journal.LOCAL) + " | " + atoms.size();
+        Path run = dir.resolve(RUN);
+        if (!Files.isRegularFile(run)) {
+            Path parent = dir.getParent();
+            Files.createDirectories(parent);
+            Path init = Files.createTempDirectory(parent, "." + dir.getFileName() + ".");
+            try {
+                Files.createDirectory(init.resolve(TODO));
+                Files.createDirectory(init.resolve(CLAIMED));
+                Files.createDirectory(init.resolve(DONE));
+                for (int i = 0; i < atoms.size(); i++) {
+                    Files.writeString(init.resolve(TODO).resolve(name(i)), atoms.get(i).atom);
+                }
+                Files.writeString(init.resolve(RUN), fingerprint);
+                Files.move(init, dir, StandardCopyOption.ATOMIC_MOVE);
+                System.err.println(Dic.getMsg("INFO_QUEUE_CREATED", dir, atoms.size()));
+            } catch (IOException e) {
+                delete(init); // another worker was first
+                if (!Files.isRegularFile(run)) {
+                    throw new BasisSculptException(Dic.getMsg("ERROR_QUEUE_DIR", dir), e);
+                }
+            }
+        }
+        if (!Files.readString(run).equals(fingerprint)) {
+            throw new BasisSculptException(Dic.getMsg("ERROR_QUEUE_RUN", dir));
+        }
+    }
+
+    /**
+     * Claims and analyses items until none is left.
+     */
+    private void work(List<BasisParser.AtomSection> atoms, List<Integer> order) throws IOException {
+        while (true) {
+            int item = claim(order);
+            if (item < 0 && release() > 0) {
+                item = claim(order);
+            }
+            if (item < 0) {
+                return;
+            }
+            Path claim = dir.resolve(CLAIMED).resolve(name(item) + "@" + worker);
+            BasisParser.AtomSection atom = atoms.get(item);
+            try {
+                Context ctx = Context.capturing(args);
+                new BasisPrinter(List.of(atom), ctx).analyseAtoms();
+                byte[] part = Journal.record(item, atom.atom, ctx.fragments());
+                Path tmp = dir.resolve(DONE).resolve("." + name(item) + "@" + worker);
+                Files.write(tmp, part);
+                Files.move(tmp, dir.resolve(DONE).resolve(name(item)), StandardCopyOption.ATOMIC_MOVE);
+                Files.delete(claim);
+            } catch (RuntimeException | IOException e) {
+                Files.move(claim, dir.resolve(TODO).resolve(name(item)), StandardCopyOption.ATOMIC_MOVE);
+                throw e;
+            }
+            System.err.println(Dic.getMsg("INFO_QUEUE_ITEM", dir, item + 1, atom.atom, worker));
+        }
+    }
+
+    /**
+     * Index of the claimed item, -1 when nothing is left to claim.
+     */
+    private int claim(List<Integer> order) throws IOException {
+        Set<String> todo = names(TODO);
+        for (int i : order) {
+            String name = name(i);
+            if (!todo.contains(name)) {
+                continue;
+            }
+            try {
+                Files.move(dir.resolve(TODO).resolve(name), dir.resolve(CLAIMED).resolve(name + "@" + worker),
+                        StandardCopyOption.ATOMIC_MOVE);
+                return i;
+            } catch (NoSuchFileException e) {
+                // claimed by another worker in the meantime
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Puts back the claims of workers on this host that are no longer
+     * running; returns how many.
+     */
+    private int release() throws IOException {
+        int released = 0;
+        for (String name : names(CLAIMED)) {
+            String[] parts = name.split("@");
+            if (parts.length == 3 && parts[1].equals(host) && !isRunning(parts[2])) {
+                try {
+                    Files.move(dir.resolve(CLAIMED).resolve(name), dir.resolve(TODO).resolve(parts[0]),
+                            StandardCopyOption.ATOMIC_MOVE);
+                    released++;
+                } catch (NoSuchFileException e) {
+                    // released by another worker
+                }
+            }
+        }
+        if (released > 0) {
+            System.err.println(Dic.getMsg("INFO_QUEUE_RELEASED", dir, released));
+        }
+        return released;
+    }
+
+    /**
+     * Writes the final files from the parts, unless another worker holds
+     * the merge lock.
+     */
+    private void merge(List<BasisParser.AtomSection> atoms) throws IOException {
+        Path lock = dir.resolve(MERGING);
+        try {
+            Files.writeString(lock, worker, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        } catch (FileAlreadyExistsException e) {
+            String owner = Files.readString(lock);
+            String[] parts = owner.split("@");
+            if (parts.length != 2 || !parts[0].equals(host) || isRunning(parts[1])) {
+                System.err.println(Dic.getMsg("INFO_QUEUE_MERGING", dir, owner));
+                return;
+            }
+            Files.writeString(lock, worker); // taken over from a stopped worker
+        }
+
+        Map<Integer, Journal.Entry> done = new HashMap<>();
+        for (int i = 0; i < atoms.size(); i++) {
+            Path part = dir.resolve(DONE).resolve(name(i));
+            try (InputStream stream = new BufferedInputStream(Files.newInputStream(part));
+                    DataInputStream in = new DataInputStream(stream)) {
+                if (!Journal.read(in, done) || !done.containsKey(i)) {
+                    throw new BasisSculptException(Dic.getMsg("ERROR_QUEUE_PART", part));
+                }
+            } catch (EOFException e) {
+                throw new BasisSculptException(Dic.getMsg("ERROR_QUEUE_PART", part), e);
+            }
+        }
+        try (Context ctx = new Context(args, Journal.replaying(dir.toFile(), done))) {
+            BasisSculpt.header(ctx);
+            BasisSculpt.analyse(ctx, atoms);
+        }
+        Files.move(lock, dir.resolve(MERGED), StandardCopyOption.ATOMIC_MOVE);
+        System.err.println(Dic.getMsg("INFO_QUEUE_MERGED", dir, atoms.size(), worker));
+    }
+
+    private Set<String> names(String sub) throws IOException {
+        Set<String> names = new HashSet<>();
+        try (Stream<Path> list = Files.list(dir.resolve(sub))) {
+            list.map(p -> p.getFileName().toString())
+                    .filter(n -> !n.startsWith("."))
+                    .forEach(names::add);
+        }
+        return names;
+    }
+
+    private static String name(int index) {
+        return String.format("%06d", index);
+    }
+
+    private static boolean isRunning(String pid) {
+        try {
+            return ProcessHandle.of(Long.parseLong(pid)).map(ProcessHandle::isAlive).orElse(false);
+        } catch (NumberFormatException e) {
+            return true; // not ours to judge
+        }
+    }
+
+    private static String host() {
+        try {
+            return InetAddress.getLocalHost().getHostName().replace('@', '_');
+        } catch (IOException e) {
+            return "localhost";
+        }
+    }
+
+    private static void delete(Path path) {
+        try (Stream<Path> walk = Files.walk(path)) {
+            walk.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        } catch (IOException e) {
+            // a leftover hidden directory does no harm
+        }
+    }
+
+    private static void await(Future<Void> future) throws IOException {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
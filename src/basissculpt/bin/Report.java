@@ -32,6 +32,7 @@
 package basissculpt.bin;
 
 import basissculpt.etc.ArgsGet;
+import basissculpt.etc.BasisSculptException;
 import basissculpt.etc.Dic;
 import java.io.*;
 
@@ -43,39 +44,46 @@ import java.io.*;
  */
 public class Report {
 
-    private static Report instance;
     private final PrintWriter writer;
+    private Capture capture;
 
-    private Report() {
-        if (!ArgsGet.getInstance().isKey("report")) {
+    public Report(ArgsGet args) {
+        if (!args.isKey("report")) {
             this.writer = null; // visi println bus ignoruojami
             return;
         }
 
-        if (ArgsGet.getInstance().isKey("report")) {
-            String path = ArgsGet.getInstance().getString("report");
-            try {
-                File file = new File(path);
-                if (!file.isAbsolute()) {
-                    file = new File(System.getProperty("user.dir"), path);
-                }
-                this.writer = new PrintWriter(new FileWriter(file));
-                
-            } catch (IOException e) {
-                String msg = Dic.getMsg("ERROR_REPORT_FILE", path);
-                throw new RuntimeException(msg, e);
-            }
+        if (args.isKey("report")) {
+            this.writer = open(args.getString("report"));
         } else {
             //force to use flush method
-            this.writer = new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out)));
+            this.writer = new PrintWriter(capture = new Capture(new BufferedWriter(new OutputStreamWriter(System.out))));
         }
     }
 
-    public static Report getInstance() {
-        if (instance == null) {
-            instance = new Report();
+    public Report(Writer target) {
+        this.writer = new PrintWriter(capture = new Capture(target));
+    }
+
+    /**
+     * Report written to the given file, e.g. one level of a threshold sweep.
+     */
+    public Report(String path) {
+        this.writer = open(path);
+    }
+
+    private PrintWriter open(String path) {
+        try {
+            File file = new File(path);
+            if (!file.isAbsolute()) {
+                file = new File(System.getProperty("user.dir"), path);
+            }
+            return new PrintWriter(capture = new Capture(new FileWriter(file)));
+
+        } catch (IOException e) {
+            String msg = Dic.getMsg("ERROR_REPORT_FILE", path);
+            throw new BasisSculptException(msg, e);
         }
-        return instance;
     }
 
     public void println(Object s) {
@@ -96,6 +104,22 @@ public class Report {
         }
     }
 
+    /**
+     * Starts keeping a copy of the written text (checkpoint journal).
+     */
+    public void startCapture() {
+        if (capture != null) {
+            capture.start();
+        }
+    }
+
+    /**
+     * The text written since startCapture(), or null without a target.
+     */
+    public String stopCapture() {
+        return capture == null ? null : capture.stop();
+    }
+
     public void flush() {
         if (writer != null) {
             writer.flush();
@@ -0,0 +1,224 @@
+/*
+ * BSD 3-Clause License
+ * 
+ * Copyright (c) 2025, M. Macernis
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation 
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors 
+ *    may be used to endorse or promote products derived from this software 
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE 
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER 
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, 
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE 
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package basissculpt.bin;
+
+import basissculpt.etc.ArgsGet;
+import basissculpt.etc.BasisSculptException;
+import basissculpt.etc.Dic;
+import basissculpt.lib.BlockResult;
+import basissculpt.lib.Removal;
+import java.io.*;
+import java.math.BigDecimal;
+import java.util.Locale;
+
+/**
+ * BasisSculpt - Sculpting Gaussian Basis Sets via Norm Control
+ *
+ * Machine readable results (--results): one record per analysed block and
+ * one per primitive removal, written as each block is finished; a removal
+ * carries the fidelity F of the reduced contraction and 1 - F, and with
+ * --early-stop the upper bound of its norm and the lower bound of its loss
+ * when the integration stopped early (empty or null for exact values). The format
+ * is CSV when the file name ends with .csv (or --results-format csv),
+ * otherwise JSON Lines. Numbers are written at the full precision of the
+ * run, not the rounded values of the report.
+ *
+ * @author M. Macernis
+ * @version 2025.4.v1
+ */
+public class Results {
+
+    private static final String CSV_HEADER = "record,atom,shell,index,alpha,full_norm,norm,loss,contribution,fidelity,infidelity,norm_max,loss_min";
+
+    private final PrintWriter writer;
+    private final boolean csv;
+    private Capture capture;
+
+    public Results(ArgsGet args) {
+        if (!args.isKey("results")) {
+            this.writer = null; // visi irasai bus ignoruojami
+            this.csv = false;
+            return;
+        }
+
+        String path = args.getString("results");
+        this.csv = isCsv(args, path);
+        try {
+            File file = new File(path);
+            if (!file.isAbsolute()) {
+                file = new File(System.getProperty("user.dir"), path);
+            }
+            this.writer = new PrintWriter(capture = new Capture(new BufferedWriter(new FileWriter(file))));
+        } catch (IOException e) {
+            String msg = Dic.getMsg("ERROR_RESULTS_FILE", path);
+            throw new BasisSculptException(msg, e);
+        }
+        if (csv) {
+            writer.println(CSV_HEADER);
+        }
+    }
+
+    /**
+     * Records written to the given target when the run has a --results file,
+     * in its format but without the CSV header, e.g. one atom analysed on a
+     * worker thread.
+     */
+    public Results(ArgsGet args, Writer target) {
+        boolean results = args.isKey("results");
+        this.csv = results && isCsv(args, args.getString("results"));
+        this.writer = results ? new PrintWriter(capture = new Capture(target)) : null;
+    }
+
+    private static boolean isCsv(ArgsGet args, String path) {
+        String format = args.getString("results-format");
+        if (format == null) {
+            return path.toLowerCase(Locale.ROOT).endsWith(".csv");
+        }
+        return switch (format.toLowerCase(Locale.ROOT)) {
+            case "csv" -> true;
+            case "jsonl", "json" -> false;
+            default -> throw new BasisSculptException(Dic.getMsg("ERROR_RESULTS_FORMAT", format));
+        };
+    }
+
+    /**
+     * Writes the block record followed by its removals and flushes, so the
+     * file can be followed while the run is in progress.
+     */
+    public synchronized void write(BlockResult result) {
+        if (writer == null) {
+            return;
+        }
+        if (csv) {
+            writer.println(String.join(",", "block", csv(result.atom), csv(result.shell),
+                    "", "", number(result.fullNorm), "", "", "", "", "", "", ""));
+            for (Removal r : result.removals) {
+                writer.println(String.join(",", "removal", csv(result.atom), csv(result.shell),
+                        String.valueOf(r.index), number(r.alpha), number(result.fullNorm),
+                        number(r.norm), number(r.loss), number(r.contribution),
+                        number(r.fidelity), number(r.infidelity), number(r.normMax), number(r.lossMin)));
+            }
+        } else {
+            writer.println("{\"record\":\"block\",\"atom\":" + json(result.atom)
+                    + ",\"shell\":" + json(result.shell)
+                    + ",\"full_norm\":" + jsonNumber(result.fullNorm)
+                    + ",\"removals\":" + result.removals.size() + "}");
+            for (Removal r : result.removals) {
+                writer.println("{\"record\":\"removal\",\"atom\":" + json(result.atom)
+                        + ",\"shell\":" + json(result.shell)
+                        + ",\"index\":" + r.index
+                        + ",\"alpha\":" + jsonNumber(r.alpha)
+                        + ",\"full_norm\":" + jsonNumber(result.fullNorm)
+                        + ",\"norm\":" + jsonNumber(r.norm)
+                        + ",\"loss\":" + jsonNumber(r.loss)
+                        + ",\"contribution\":" + jsonNumber(r.contribution)
+                        + ",\"fidelity\":" + jsonNumber(r.fidelity)
+                        + ",\"infidelity\":" + jsonNumber(r.infidelity)
+                        + ",\"norm_max\":" + jsonNumber(r.normMax)
+                        + ",\"loss_min\":" + jsonNumber(r.lossMin) + "}");
+            }
+        }
+        writer.flush();
+    }
+
+    private static String number(BigDecimal value) {
+        return value == null ? "" : value.toString();
+    }
+
+    private static String jsonNumber(BigDecimal value) {
+        return value == null ? "null" : value.toString();
+    }
+
+    private static String csv(String s) {
+        String v = s.trim();
+        if (v.indexOf(',') < 0 && v.indexOf('"') < 0) {
+            return v;
+        }
+        return '"' + v.replace("\"", "\"\"") + '"';
+    }
+
+    private static String json(String s) {
+        StringBuilder sb = new StringBuilder("\"");
+        for (char ch : s.trim().toCharArray()) {
+            switch (ch) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                default -> {
+                    if (ch < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) ch));
+                    } else {
+                        sb.append(ch);
+                    }
+                }
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    /**
+     * Starts keeping a copy of the written records (checkpoint journal).
+     */
+    public synchronized void startCapture() {
+        if (capture != null) {
+            capture.start();
+        }
+    }
+
+    /**
+     * The records written since startCapture(), or null without a file.
+     */
+    public synchronized String stopCapture() {
+        return capture == null ? null : capture.stop();
+    }
+
+    /**
+     * Writes records of an earlier run (resume) as they are.
+     */
+    public synchronized void replay(String text) {
+        if (writer != null) {
+            writer.print(text);
+            writer.flush();
+        }
+    }
+
+    public void flush() {
+        if (writer != null) {
+            writer.flush();
+        }
+    }
+
+    public void close() {
+        if (writer != null) {
+            writer.close();
+        }
+    }
+}
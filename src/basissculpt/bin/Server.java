@@ -0,0 +1,227 @@
+/*
+ * BSD 3-Clause License
+ * 
+ * Copyright (c) 2025, M. Macernis
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation 
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors 
+ *    may be used to endorse or promote products derived from this software 
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE 
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER 
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, 
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE 
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package basissculpt.bin;
+
+import basissculpt.etc.Args;
+import basissculpt.etc.ArgsGet;
+import basissculpt.etc.BasisSculptException;
+import basissculpt.etc.Dic;
+import basissculpt.lib.read.BasisFormats;
+import basissculpt.lib.read.BasisParser;
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * BasisSculpt - Sculpting Gaussian Basis Sets via Norm Control
+ *
+ * Local daemon keeping one warm engine. A request is the option line
+ * (tab or space separated) followed by the .gbs text, terminated by closing
+ * the sending side of the connection. The reply consists of the sections
+ * {@code %%log}, {@code %%report} and {@code %%output}, or
+ * {@code %%error <message>}, and ends with {@code %%end}.
+ *
+ * Every request runs in its own {@link Context} on a virtual thread, so
+ * requests are analysed concurrently. A --threshold given to --serve is the
+ * default for requests without one. Options whose targets or resources a
+ * request does not have are answered with {@code %%error}: threshold
+ * sweeps and --refit (per level files), --threads (a pool per request in
+ * the shared daemon), --queue, --checkpoint, --resume and --estimate.
+ *
+ * @author M. Macernis
+ * @version 2025.4.v1
+ */
+public class Server {
+
+    static final String LOG = "%%log";
+    static final String REPORT = "%%report";
+    static final String OUTPUT = "%%output";
+    static final String ERROR = "%%error";
+    static final String END = "%%end";
+
+    private static final List<String> FILES = List.of("input", "log", "report", "output", "results", "serve", "client",
+            "write-library");
+    private static final List<String> UNSUPPORTED = List.of("refit", "threads", "queue", "checkpoint", "resume",
+            "estimate");
+
+    private final String address;
+    private final String threshold;
+
+    public Server(ArgsGet args) {
+        this.address = args.getStringNotNull("serve");
+        this.threshold = args.getString("threshold");
+    }
+
+    public void run() throws IOException {
+        SocketAddress socket = socketAddress(address);
+        boolean unix = socket instanceof UnixDomainSocketAddress;
+        if (unix) {
+            Files.deleteIfExists(((UnixDomainSocketAddress) socket).getPath());
+        }
+
+        try (ServerSocketChannel server = unix
+                ? ServerSocketChannel.open(StandardProtocolFamily.UNIX)
+                : ServerSocketChannel.open();
+                ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            server.bind(socket);
+            System.out.println(Dic.getMsg("INFO_SERVING", address));
+            while (server.isOpen()) {
+                SocketChannel channel = server.accept();
+                workers.submit(() -> handle(channel));
+            }
+        }
+    }
+
+    /**
+     * A numeric address is a loopback TCP port, anything else a Unix-domain
+     * socket path.
+     */
+    static SocketAddress socketAddress(String address) {
+        if (address == null || address.isBlank()) {
+            throw new IllegalArgumentException(Dic.getMsg("ERROR_SERVE_ADDRESS", address));
+        }
+        try {
+            int port = Integer.parseInt(address.trim());
+            return new InetSocketAddress(java.net.InetAddress.getLoopbackAddress(), port);
+        } catch (NumberFormatException ex) {
+            return UnixDomainSocketAddress.of(Path.of(address));
+        }
+    }
+
+    private void handle(SocketChannel channel) {
+        try (channel) {
+            BufferedReader in = new BufferedReader(new InputStreamReader(
+                    Channels.newInputStream(channel), StandardCharsets.UTF_8));
+            Writer out = new BufferedWriter(new OutputStreamWriter(
+                    Channels.newOutputStream(channel), StandardCharsets.UTF_8));
+
+            String options = in.readLine();
+            StringBuilder text = new StringBuilder();
+            char[] buf = new char[8192];
+            int n;
+            while ((n = in.read(buf)) > 0) {
+                text.append(buf, 0, n);
+            }
+
+            out.write(process(options == null ? "" : options, text.toString()));
+            out.flush();
+        } catch (IOException e) {
+            // client went away, nothing to answer
+        }
+    }
+
+    private String process(String options, String text) {
+        String[] args = options.contains("\t")
+                ? options.trim().split("\t")
+                : options.trim().split("\\s+");
+
+        StringWriter log = new StringWriter();
+        StringWriter report = new StringWriter();
+        StringWriter output = new StringWriter();
+
+        try (Context ctx = new Context(new ArgsGet(new Args(requestArgs(args))), log, report, output)) {
+            if (ctx.settings.isSweep()) {
+                return error(Dic.getMsg("ERROR_SERVE_SWEEP"));
+            }
+            List<BasisParser.AtomSection> atoms = new ArrayList<>();
+            BasisFormats.read(new BufferedReader(new StringReader(text)), ctx.args.getString("input-format"), null,
+                    ctx.log.isEnabled(LogFile.Level.VERBOSE) ? ctx.log : null, atoms::add);
+            if (atoms.isEmpty()) {
+                return error(Dic.getMsg("ERROR_INPUT_FILE_ATOMS", "request"));
+            }
+            BasisSculpt.header(ctx);
+            BasisSculpt.analyse(ctx, BasisSculpt.select(ctx.args, atoms));
+        } catch (RuntimeException | IOException e) {
+            return error(e.getMessage());
+        }
+
+        StringBuilder reply = new StringBuilder();
+        section(reply, LOG, log.toString());
+        section(reply, REPORT, report.toString());
+        section(reply, OUTPUT, output.toString());
+        reply.append(END).append('\n');
+        return reply.toString();
+    }
+
+    /**
+     * Request options without the daemon and file options, with the default
+     * --threshold of the daemon when the request has none. Fails on an
+     * option a request cannot honour.
+     */
+    private String[] requestArgs(String[] args) {
+        List<String> kept = new ArrayList<>();
+        boolean hasThreshold = false;
+        for (int i = 0; i < args.length; i++) {
+            String key = args[i].startsWith("--") ? args[i].substring(2) : null;
+            boolean hasValue = i + 1 < args.length && !args[i + 1].startsWith("--");
+            if (key != null && UNSUPPORTED.contains(key)) {
+                throw new BasisSculptException(Dic.getMsg("ERROR_SERVE_OPTION", key));
+            }
+            if (key != null && FILES.contains(key)) {
+                if (hasValue) {
+                    i++;
+                }
+                continue;
+            }
+            hasThreshold |= "threshold".equals(key);
+            kept.add(args[i]);
+        }
+        if (!hasThreshold && threshold != null) {
+            kept.add("--threshold");
+            kept.add(threshold);
+        }
+        return kept.toArray(new String[0]);
+    }
+
+    private static void section(StringBuilder reply, String name, String content) {
+        reply.append(name).append('\n').append(content);
+        if (!content.isEmpty() && !content.endsWith("\n")) {
+            reply.append('\n');
+        }
+    }
+
+    private static String error(String message) {
+        return ERROR + " " + message + "\n" + END + "\n";
+    }
+}
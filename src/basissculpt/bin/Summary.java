@@ -0,0 +1,297 @@
+/*
+ * BSD 3-Clause License
+ * 
+ * Copyright (c) 2025, M. Macernis
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation 
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors 
+ *    may be used to endorse or promote products derived from this software 
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE 
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER 
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, 
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE 
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package basissculpt.bin;
+
+import basissculpt.etc.ArgsGet;
+import basissculpt.etc.BasisSculptException;
+import basissculpt.etc.Dic;
+import basissculpt.etc.Settings;
+import basissculpt.lib.BlockResult;
+import basissculpt.lib.Removal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+/**
+ * BasisSculpt - Sculpting Gaussian Basis Sets via Norm Control
+ *
+ * Library-wide summary of a run (--summary [K]), built as the blocks are
+ * finished and printed at the end of the report and the log: the K
+ * primitives with the smallest single removal loss, decade histograms of
+ * the loss and the |c·N| contribution, and per shell type and per element
+ * the number of primitives, how many are within the strictest threshold
+ * and the smallest, mean and largest loss. The memory is bounded by K and
+ * the number of shell types and elements, whatever the size of the library.
+ * The joined atom blocks are not counted; their losses are relative to the
+ * whole atom.
+ *
+ * Like the other targets it can be captured and replayed (worker threads,
+ * checkpoint journal); the captured text holds one line per record.
+ *
+ * @author M. Macernis
+ * @version 2025.4.v1
+ */
+public class Summary {
+
+    private static final int TOP = 20;
+    private static final int FIRST_DECADE = -10; // first bin: below 1e-10
+    private static final int LAST_DECADE = 2;    // last bin: 1e2 and above
+
+    private record Entry(long order, String atom, String shell, int index, double alpha, double loss,
+            double contribution) {
+    }
+
+    private static final Comparator<Entry> SMALLEST = Comparator
+            .comparingDouble((Entry e) -> Math.abs(e.loss()))
+            .thenComparingLong(Entry::order);
+
+    private static final class Aggregate {
+
+        long count;
+        long removable;
+        double sum;
+        double min = Double.POSITIVE_INFINITY;
+        double max = 0;
+
+        void add(double loss, boolean within) {
+            double v = Math.abs(loss);
+            count++;
+            removable += within ? 1 : 0;
+            sum += v;
+            min = Math.min(min, v);
+            max = Math.max(max, v);
+        }
+    }
+
+    private final boolean active;
+    private final int size;
+    private final double allowed;                // strictest deviation, in percent
+    private final String threshold;
+    private final PriorityQueue<Entry> top;      // the largest |loss| of the K at the head
+    private final long[] losses = new long[LAST_DECADE - FIRST_DECADE + 2];
+    private final long[] contributions = new long[losses.length];
+    private final Map<String, Aggregate> shells = new TreeMap<>();
+    private final Map<String, Aggregate> elements = new LinkedHashMap<>();
+    private long atoms;
+    private long blocks;
+    private long order;
+    private StringBuilder capture;
+
+    public Summary(ArgsGet args, Settings settings) {
+        this.active = args.isKey("summary");
+        String value = args.getString("summary");
+        if (value == null) {
+            this.size = TOP;
+        } else {
+            Integer k = args.getInt("summary");
+            if (k == null || k < 0) {
+                throw new BasisSculptException(Dic.getMsg("ERROR_SUMMARY", value));
+            }
+            this.size = k;
+        }
+        this.allowed = Settings.deviation(settings.getThreshold()).doubleValue() * 100;
+        this.threshold = settings.getThreshold().toString();
+        this.top = new PriorityQueue<>(SMALLEST.reversed());
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    /**
+     * Counts a finished block.
+     */
+    public void add(BlockResult result) {
+        if (!active) {
+            return;
+        }
+        if (result.shell.equals("ALL")) {
+            record("atom", result.atom);
+            atoms++;
+            return;
+        }
+        record("block", result.atom, result.shell);
+        blocks++;
+        for (Removal r : result.removals) {
+            double alpha = r.alpha.doubleValue();
+            double loss = r.loss.doubleValue();
+            double contribution = r.contribution.doubleValue();
+            record("removal", result.atom, result.shell, String.valueOf(r.index),
+                    Double.toString(alpha), Double.toString(loss), Double.toString(contribution));
+            removal(result.atom, result.shell, r.index, alpha, loss, contribution);
+        }
+    }
+
+    private void removal(String atom, String shell, int index, double alpha, double loss, double contribution) {
+        boolean within = Math.abs(loss) <= allowed;
+        shells.computeIfAbsent(shell, k -> new Aggregate()).add(loss, within);
+        elements.computeIfAbsent(atom, k -> new Aggregate()).add(loss, within);
+        losses[bin(loss)]++;
+        contributions[bin(contribution)]++;
+        if (size > 0) {
+            Entry entry = new Entry(order++, atom, shell, index, alpha, loss, contribution);
+            if (top.size() < size) {
+                top.add(entry);
+            } else if (SMALLEST.compare(entry, top.peek()) < 0) {
+                top.poll();
+                top.add(entry);
+            }
+        }
+    }
+
+    private static int bin(double value) {
+        double v = Math.abs(value);
+        if (!(v >= Math.pow(10, FIRST_DECADE))) {
+            return 0;
+        }
+        int decade = (int) Math.floor(Math.log10(v));
+        return Math.min(decade, LAST_DECADE) - FIRST_DECADE + 1;
+    }
+
+    private static String range(int bin) {
+        if (bin == 0) {
+            return String.format("< 1e%d", FIRST_DECADE);
+        }
+        int decade = bin - 1 + FIRST_DECADE;
+        return decade >= LAST_DECADE ? String.format(">= 1e%d", decade)
+                : String.format("1e%d - 1e%d", decade, decade + 1);
+    }
+
+    private void record(String... fields) {
+        if (capture != null) {
+            capture.append(String.join("\t", fields)).append('\n');
+        }
+    }
+
+    /**
+     * Writes the summary to the log and the report.
+     */
+    public void print(LogFile log, Report report) {
+        if (!active) {
+            return;
+        }
+        List<String> lines = new ArrayList<>();
+        long primitives = 0;
+        long removable = 0;
+        for (Aggregate a : shells.values()) {
+            primitives += a.count;
+            removable += a.removable;
+        }
+        lines.add(Dic.getMsg("INFO_SEPARATOR"));
+        lines.add(Dic.getMsg("INFO_SUMMARY", atoms, blocks, primitives, removable, threshold));
+        if (!top.isEmpty()) {
+            lines.add(Dic.getMsg("INFO_SUMMARY_TOP", top.size()));
+            List<Entry> sorted = new ArrayList<>(top);
+            sorted.sort(SMALLEST);
+            for (Entry e : sorted) {
+                lines.add(Dic.getMsg("INFO_SUMMARY_TOP_ENTRY", e.atom(), e.shell(), e.index(), e.alpha(),
+                        e.loss(), e.contribution()));
+            }
+        }
+        histogram(lines, "loss", losses, primitives);
+        histogram(lines, "contribution", contributions, primitives);
+        group(lines, "shell", shells);
+        group(lines, "element", elements);
+        for (String s : lines) {
+            log.println(s);
+            report.println(s);
+        }
+    }
+
+    private static void histogram(List<String> lines, String name, long[] bins, long total) {
+        lines.add(Dic.getMsg("INFO_SUMMARY_HISTOGRAM", name));
+        for (int b = 0; b < bins.length; b++) {
+            if (bins[b] > 0) {
+                lines.add(Dic.getMsg("INFO_SUMMARY_BIN", range(b), bins[b], 100.0 * bins[b] / total));
+            }
+        }
+    }
+
+    private static void group(List<String> lines, String name, Map<String, Aggregate> groups) {
+        lines.add(Dic.getMsg("INFO_SUMMARY_GROUP_HEADER", name, "primitives", "within", "min loss", "mean loss",
+                "max loss"));
+        for (Map.Entry<String, Aggregate> g : groups.entrySet()) {
+            Aggregate a = g.getValue();
+            lines.add(Dic.getMsg("INFO_SUMMARY_GROUP", g.getKey(), a.count, a.removable, a.min, a.sum / a.count,
+                    a.max));
+        }
+    }
+
+    /**
+     * Starts keeping the records of the counted blocks (worker threads,
+     * checkpoint journal).
+     */
+    public void startCapture() {
+        if (active) {
+            capture = new StringBuilder();
+        }
+    }
+
+    /**
+     * The records since startCapture(), or null without --summary.
+     */
+    public String stopCapture() {
+        if (capture == null) {
+            return null;
+        }
+        String text = capture.toString();
+        capture = null;
+        return text;
+    }
+
+    /**
+     * Counts the records of an earlier run or of a worker thread.
+     */
+    public void replay(String text) {
+        if (!active) {
+            return;
+        }
+        for (String line : text.split("\n")) {
+            String[] f = line.split("\t");
+            switch (f[0]) {
+                case "atom" -> atoms++;
+                case "block" -> blocks++;
+                case "removal" -> removal(f[1], f[2], Integer.parseInt(f[3]), Double.parseDouble(f[4]),
+                        Double.parseDouble(f[5]), Double.parseDouble(f[6]));
+                default -> {
+                }
+            }
+            if (capture != null && !line.isEmpty()) {
+                capture.append(line).append('\n');
+            }
+        }
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * BSD 3-Clause License
+ * 
+ * Copyright (c) 2025, M. Macernis
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation 
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors 
+ *    may be used to endorse or promote products derived from this software 
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE 
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER 
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, 
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE 
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package basissculpt.bin;
+
+import basissculpt.etc.ArgsGet;
+import basissculpt.etc.Settings;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * BasisSculpt - Sculpting Gaussian Basis Sets via Norm Control
+ *
+ * Targets of a threshold sweep (--threshold with several values). The
+ * analysis runs once, at the precision of the strictest threshold; each
+ * level gets its own removal decisions, written to a report and a reduced
+ * output next to --report and --output (e.g. basis.1e-5.gbs). --refit
+ * gives removal decisions for a single threshold as well.
+ *
+ * @author M. Macernis
+ * @version 2025.4.v1
+ */
+public class Sweep {
+
+    public static final class Level {
+
+        public final BigDecimal threshold;
+        public final BigDecimal deviation;
+        public final String label;
+        public final Output out;
+        public final Report report;
+
+        Level(BigDecimal threshold, ArgsGet args, Writer target) {
+            this.threshold = threshold;
+            this.deviation = Settings.deviation(threshold);
+            this.label = label(threshold);
+            if (args.isKey("normalize") && args.isKey("output")) {
+                this.out = target == null ? new Output(suffixed(args.getString("output"), label))
+                        : new Output(args, target);
+            } else {
+                this.out = null;
+            }
+            if (args.isKey("report")) {
+                this.report = target == null ? new Report(suffixed(args.getString("report"), label))
+                        : new Report(target);
+            } else {
+                this.report = null;
+            }
+        }
+    }
+
+    public final List<Level> levels;
+
+    public Sweep(ArgsGet args, Settings settings) {
+        this(args, settings, null);
+    }
+
+    /**
+     * Level outputs and reports written to the given target instead of their
+     * files (null for the files), e.g. one atom analysed on a worker thread.
+     */
+    public Sweep(ArgsGet args, Settings settings, Writer target) {
+        List<Level> list = new ArrayList<>();
+        if (settings.isSweep() || args.isKey("refit")) {
+            for (BigDecimal t : settings.getThresholds()) {
+                list.add(new Level(t, args, target));
+            }
+        }
+        this.levels = List.copyOf(list);
+    }
+
+    public boolean isActive() {
+        return !levels.isEmpty();
+    }
+
+    /**
+     * Line common to all reduced outputs (headers, atom labels, separators).
+     */
+    public void println(String s) {
+        for (Level level : levels) {
+            if (level.out != null) {
+                level.out.println(s);
+            }
+        }
+    }
+
+    /**
+     * Line common to all sweep reports.
+     */
+    public void report(String s) {
+        for (Level level : levels) {
+            if (level.report != null) {
+                level.report.println(s);
+            }
+        }
+    }
+
+    /**
+     * 1e-5 style label of a threshold (25e-5 for 0.00025, 5 for 5).
+     */
+    static String label(BigDecimal threshold) {
+        BigDecimal t = threshold.stripTrailingZeros();
+        if (t.scale() <= 0) {
+            return t.toPlainString();
+        }
+        return t.unscaledValue() + "e-" + t.scale();
+    }
+
+    static String suffixed(String path, String label) {
+        int dot = path.lastIndexOf('.');
+        int slash = Math.max(path.lastIndexOf('/'), path.lastIndexOf('\\'));
+        if (dot > slash + 1) {
+            return path.substring(0, dot) + "." + label + path.substring(dot);
+        }
+        return path + "." + label;
+    }
+
+    /**
+     * Starts keeping a copy of the level outputs and reports (checkpoint
+     * journal).
+     */
+    public void startCapture() {
+        for (Level level : levels) {
+            if (level.out != null) {
+                level.out.startCapture();
+            }
+            if (level.report != null) {
+                level.report.startCapture();
+            }
+        }
+    }
+
+    /**
+     * Adds the text written since startCapture() per level target, named
+     * sweep.&lt;label&gt;.out and sweep.&lt;label&gt;.report.
+     */
+    public void stopCapture(Map<String, String> fragments) {
+        for (Level level : levels) {
+            if (level.out != null) {
+                fragments.put("sweep." + level.label + ".out", level.out.stopCapture());
+            }
+            if (level.report != null) {
+                fragments.put("sweep." + level.label + ".report", level.report.stopCapture());
+            }
+        }
+    }
+
+    /**
+     * Writes the fragments of an earlier run (resume) to the level targets.
+     */
+    public void replay(Map<String, String> fragments) {
+        for (Level level : levels) {
+            String out = fragments.get("sweep." + level.label + ".out");
+            if (level.out != null && out != null) {
+                level.out.print(out);
+            }
+            String report = fragments.get("sweep." + level.label + ".report");
+            if (level.report != null && report != null) {
+                level.report.print(report);
+            }
+        }
+    }
+
+    public void flush() {
+        for (Level level : levels) {
+            if (level.out != null) {
+                level.out.flush();
+            }
+            if (level.report != null) {
+                level.report.flush();
+            }
+        }
+    }
+
+    public void close() {
+        for (Level level : levels) {
+            if (level.out != null) {
+                level.out.close();
+            }
+            if (level.report != null) {
+                level.report.close();
+            }
+        }
+    }
+}
@@ -32,7 +32,9 @@
 package basissculpt.etc;
 
 import java.math.BigDecimal;
+import java.util.Collections;
 import java.util.Map;
+import java.util.TreeMap;
 
 /**
  * BasisSculpt - Sculpting Gaussian Basis Sets via Norm Control
@@ -42,16 +44,17 @@ import java.util.Map;
  */
 public class ArgsGet {
 
-    private static ArgsGet instance;
     private final Map<String, String> map;
 
     public ArgsGet(Args args) {
-        this.map = args.getMapArgs();
-        this.instance = this;
+        this.map = Collections.unmodifiableMap(new TreeMap<>(args.getMapArgs()));
     }
 
-    public static ArgsGet getInstance() {
-        return instance;
+    /**
+     * All arguments, sorted by name.
+     */
+    public Map<String, String> asMap() {
+        return map;
     }
 
     public String getString(String key) {
@@ -48,11 +48,17 @@ public class Dic {
         messages.put("ERROR_FILE_ARGUMENT", "ERROR: --input <file> argument is required.");
         messages.put("ERROR_FILE_NOT_FOUND", "ERROR: Input file not found or not readable: %s");
         messages.put("ERROR_THRESHOLD_REQUIRED", "ERROR: --threshold <float> argument is required (e.g., 1e-5).");
+        messages.put("ERROR_THRESHOLD_FORMAT", "ERROR: --threshold must be a positive value, a list (1e-3,1e-5) or a range (1e-3:1e-10): %s");
+        messages.put("ERROR_THRESHOLD_LEVELS", "ERROR: --threshold range %s gives more than %d levels");
         messages.put("ERROR_STRATEGY_REQUIRED", "ERROR: --strategy <mode> is required (must be 'best-first' or 'full-scan').");
         messages.put("ERROR_LEVEL_REQUIRED_FOR_BEST_FIRST", "ERROR: --level <N> is required only when using strategy 'best-first'.");
         messages.put("ERROR_OUTPUT_FILE", "ERROR: Cannot open output file: %s");
+        messages.put("ERROR_LOG_MESSAGE", "ERROR: Log message could not be written: %s");
         messages.put("ERROR_LOG_FILE", "ERROR: Cannot open log file: %s");
+        messages.put("ERROR_LOG_LEVEL", "ERROR: --log-level must be info, detail or verbose: %s");
         messages.put("ERROR_REPORT_FILE", "ERROR: Cannot open report file: %s");
+        messages.put("ERROR_RESULTS_FILE", "ERROR: Cannot open results file: %s");
+        messages.put("ERROR_RESULTS_FORMAT", "ERROR: --results-format must be jsonl or csv: %s");
         messages.put("ERROR_INPUT_FILE_ATOMS", "ERROR: Atoms not found in input file: %s");
         messages.put("INFO_FULL_NORM", "Full norm: %.10f");
         messages.put("INFO_PARTIAL_NORM", "Partial norm without primitive #%d: %.10f");
@@ -61,6 +67,25 @@ public class Dic {
         messages.put("INFO_REMOVE_ENTRY", "Removed #%2d (alfa = %.10f): norm = %.10f, loss = %.4f%%, contribution = %.4f%%");
         messages.put("INFO_REMOVE_HEADE_REPORT", "Rem. \t alfa \t\t\t norm \t\t\tloss,% \t contr.,%");
         messages.put("INFO_REMOVE_ENTRY_REPORT", "#%2d \t %.10f \t %.10f \t%.4f \t\t %.4f");
+        messages.put("INFO_REMOVE_ENTRY_FIDELITY", "Removed #%2d (alfa = %.10f): norm = %.10f, loss = %.4f%%, contribution = %.4f%%, fidelity = %.10f, 1-F = %.4e");
+        messages.put("INFO_REMOVE_HEADE_REPORT_FIDELITY", "Rem. \t alfa \t\t\t norm \t\t\tloss,% \t contr.,% \t fidelity \t\t 1-F");
+        messages.put("INFO_REMOVE_ENTRY_REPORT_FIDELITY", "#%2d \t %.10f \t %.10f \t%.4f \t\t %.4f \t\t %.10f \t %.4e");
+        messages.put("INFO_REMOVE_ENTRY_BOUND", "Removed #%2d (alfa = %.10f): norm in [%.10f, %.10f], loss in [%.4f%%, %.4f%%], contribution = %.4f%%");
+        messages.put("INFO_REMOVE_ENTRY_BOUND_FIDELITY", "Removed #%2d (alfa = %.10f): norm in [%.10f, %.10f], loss in [%.4f%%, %.4f%%], contribution = %.4f%%, fidelity = %.10f, 1-F = %.4e");
+        messages.put("INFO_REMOVE_ENTRY_REPORT_BOUND", "#%2d \t %.10f \t [%.10f, %.10f] \t[%.4f, %.4f] \t %.4f");
+        messages.put("INFO_REMOVE_ENTRY_REPORT_BOUND_FIDELITY", "#%2d \t %.10f \t [%.10f, %.10f] \t[%.4f, %.4f] \t %.4f \t\t %.10f \t %.4e");
+        messages.put("INFO_EARLY_STOP", "Early stop: %d of %d removals integrated on the grid decided before its end");
+        messages.put("INFO_SENSITIVITY_ENTRY", "Sensitivity #%2d (alfa = %.10f): dN/dc = %+.6e, dN/dalfa = %+.6e, dloss/dc = %+.6e%%, dloss/dalfa = %+.6e%%");
+        messages.put("INFO_SENSITIVITY_HEADER_REPORT", "Sens. \t dN/dc \t\t dN/dalfa \t dloss/dc,% \t dloss/dalfa,%");
+        messages.put("INFO_SENSITIVITY_ENTRY_REPORT", "#%2d \t %+.6e \t %+.6e \t %+.6e \t %+.6e");
+        messages.put("INFO_SCREENING", "Screening: %d certainly kept, %d certainly removable, %d evaluated exactly");
+        messages.put("INFO_SUMMARY", "Summary: %d atoms, %d shells, %d primitives, %d within threshold %s as single removals");
+        messages.put("INFO_SUMMARY_TOP", "Most removable primitives (%d smallest |loss|):");
+        messages.put("INFO_SUMMARY_TOP_ENTRY", "  %-6s %-6s #%2d (alfa = %.10f): loss = %.4e%%, contribution = %.4f%%");
+        messages.put("INFO_SUMMARY_HISTOGRAM", "Distribution of |%s|, %%:");
+        messages.put("INFO_SUMMARY_BIN", "  %-15s %8d  %6.2f%%");
+        messages.put("INFO_SUMMARY_GROUP_HEADER", "By %-8s %10s %8s %12s %12s %12s");
+        messages.put("INFO_SUMMARY_GROUP", "   %-8s %10d %8d %12.4e %12.4e %12.4e");
         messages.put("INFO_SEPARATOR", "-----------------");
         messages.put("INFO_VERSION_TAG", "Version tag: %s");
         messages.put("INFO_FIXED_BASIS_NAME", "Fixed basis name: %s");
@@ -68,9 +93,61 @@ public class Dic {
         messages.put("INFO_FULL_NORMALIZED_NORM", "Full norm after normalization: %.10f");
         messages.put("INFO_VERBOSE_NORMALIZATION", "Full numbers:");
         messages.put("INFO_MATH_CONTEXT_PRECISION", "Selected math precision: %d digits");
+        messages.put("INFO_DOUBLE_DOUBLE", "Radial integrals on the double-double kernel");
         messages.put("WARN_PROJECTION_FAILED", "!! Projection normalization failed: negative discriminant. Solving numerically...");
         messages.put("INFO_OPTIMIZED_S2", "Optimized s2 = %.8f (error = %.2e)");
         messages.put("WARN_SINGLE_SIGN_GROUP", "‼ Cannot project-normalize: only one sign group present.");
+        messages.put("ERROR_INPUT_FORMAT", "ERROR: Unknown input format: %s (available: %s)");
+        messages.put("ERROR_JSON_SYNTAX", "ERROR: Invalid JSON at line %d: %s");
+        messages.put("WARN_BSE_NO_SHELLS", "WARNING: BSE element %s has no electron shells, skipped");
+        messages.put("WARN_NWCHEM_LINE", "WARNING: NWChem line %d skipped (expected <element> <shell>): %s");
+        messages.put("ERROR_CHECKPOINT_FILE", "ERROR: Cannot write checkpoint journal: %s");
+        messages.put("ERROR_CHECKPOINT_FORMAT", "ERROR: Not a BasisSculpt checkpoint journal: %s");
+        messages.put("ERROR_CHECKPOINT_RUN", "ERROR: Checkpoint journal %s belongs to another run (arguments or input differ)");
+        messages.put("ERROR_CHECKPOINT_MISMATCH", "ERROR: Checkpoint journal %s does not match atom %d (%s)");
+        messages.put("INFO_CHECKPOINT_RESUME", "Resuming: %d atoms taken from %s");
+        messages.put("ERROR_ENGINE", "ERROR: --engine must be auto, bigdecimal or double-double: %s");
+        messages.put("ERROR_ENGINE_PRECISION", "ERROR: --engine double-double carries %2$d digits; the threshold needs %1$d");
+        messages.put("ERROR_SUMMARY", "ERROR: --summary takes the number of primitives to list: %s");
+        messages.put("ERROR_QUEUE_DIR", "ERROR: Cannot use queue directory: %s");
+        messages.put("ERROR_QUEUE_RUN", "ERROR: Queue %s belongs to another run (arguments or input differ)");
+        messages.put("ERROR_QUEUE_PART", "ERROR: Queue part is incomplete or damaged: %s");
+        messages.put("INFO_QUEUE_CREATED", "Queue %s: %d atoms queued");
+        messages.put("INFO_QUEUE_ITEM", "Queue %s: atom %d (%s) done by %s");
+        messages.put("INFO_QUEUE_RELEASED", "Queue %s: %d claims of stopped workers put back");
+        messages.put("INFO_QUEUE_WAITING", "Queue %s: %d of %d atoms done, the others are still claimed; the last worker merges");
+        messages.put("INFO_QUEUE_MERGING", "Queue %s: being merged by %s");
+        messages.put("INFO_QUEUE_MERGED", "Queue %s: %d atoms merged by %s");
+        messages.put("INFO_QUEUE_MERGED_BEFORE", "Queue %s: already merged (remove %s to merge again)");
+        messages.put("ERROR_THREADS", "ERROR: --threads must be a number of threads (0 for all processors): %s");
+        messages.put("INFO_ESTIMATE_HEADER", "%-12s %7s %11s %14s %7s");
+        messages.put("INFO_ESTIMATE_ATOM", "%-12s %7d %11d %14.3f %6.1f%%");
+        messages.put("INFO_ESTIMATE_TOTAL", "Total: %d atoms, %d shells, %d primitives, %.3f units at %d digits");
+        messages.put("INFO_ESTIMATE_THREADS", "On %d threads: at least %.3f units (largest shell %.3f units)");
+        messages.put("ERROR_LIBRARY_FORMAT", "ERROR: Not a BasisSculpt binary library: %s");
+        messages.put("ERROR_LIBRARY_VERSION", "ERROR: Binary library %s has format version %d, expected %d: write it again with --write-library");
+        messages.put("ERROR_LIBRARY_ATOM", "ERROR: Atom of binary library %s too large to map: %s");
+        messages.put("ERROR_LIBRARY_FILE", "ERROR: Cannot write binary library: %s");
+        messages.put("ERROR_ATOM_NOT_FOUND", "ERROR: Atom not found in input file: %s");
+        messages.put("INFO_LIBRARY_WRITTEN", "Binary library written: %s (%d atoms)");
+        messages.put("ERROR_SERVE_ADDRESS", "ERROR: --serve/--client needs a port or socket path: %s");
+        messages.put("ERROR_SERVE_OPTION", "ERROR: --%s is not supported in a --serve request, run it without --client");
+        messages.put("ERROR_SERVE_SWEEP", "ERROR: A --serve request takes a single --threshold, run a threshold sweep without --client");
+        messages.put("ERROR_CLIENT_CONNECT", "ERROR: Cannot connect to BasisSculpt server: %s");
+        messages.put("INFO_SERVING", "BasisSculpt serving on %s");
+        messages.put("INFO_SWEEP", "Threshold sweep: %s (computed once at %d digits)");
+        messages.put("INFO_SWEEP_THRESHOLD", "Threshold: %s (max. norm deviation %s)");
+        messages.put("INFO_SWEEP_DECISION", "Threshold %s: remove %s, keep %d of %d, deviation = %.4e, fidelity = %.10f, 1-F = %.4e");
+        messages.put("INFO_SWEEP_DECISION_REPORT", "Remove: %s \t keep %d of %d \t deviation %.4e \t fidelity %.10f \t 1-F %.4e");
+        messages.put("ERROR_GENERATOR_SPEC", "ERROR: --atoms, --min-primitives <= --max-primitives and --contractions must be positive, --diffuse not negative");
+        messages.put("ERROR_GENERATOR_OPTION", "ERROR: Unknown generator option: --%s (see --help)");
+        messages.put("INFO_GENERATED", "Generated %d atoms, %d shells, %d primitives");
+        messages.put("ERROR_BENCH_SCENARIO", "ERROR: Unknown benchmark scenario: %s");
+        messages.put("INFO_BENCH_UPDATED", "Baselines written: %s");
+        messages.put("WARN_BENCH_REGRESSION", "REGRESSION %s: %s %s (baseline %s)");
+        messages.put("ERROR_STARTUP_CLASSPATH", "ERROR: Class data sharing needs jar files on the class path, not the directory %s");
+        messages.put("ERROR_STARTUP_RUN", "ERROR: Startup run failed: %s");
+        messages.put("INFO_STARTUP_TRAINED", "Archive written: %s (%d KB, training run %.0f ms)");
         messages.put("WARN_NON_GBS_INPUT", "WARNING: the input does not fit the GBS format! Ignoring and attempting to parse. Check results!");
     }
 
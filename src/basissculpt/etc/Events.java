@@ -0,0 +1,130 @@
+/*
+ * BSD 3-Clause License
+ * 
+ * Copyright (c) 2025, M. Macernis
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation 
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors 
+ *    may be used to endorse or promote products derived from this software 
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE 
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER 
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, 
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE 
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package basissculpt.etc;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * BasisSculpt - Sculpting Gaussian Basis Sets via Norm Control
+ *
+ * JDK Flight Recorder events of the phases of a run: parse, atom, block
+ * analysis, normalization and the flush of the targets. Each carries the
+ * atom, shell type, primitive count, radial grid steps, math precision and
+ * engine, so a recording (-XX:StartFlightRecording) shows which element or
+ * shell a slow run spends its time on. Without a recording an event costs
+ * an allocation; its fields are filled only when it is to be committed.
+ * Fields that do not apply to a phase are empty or zero.
+ *
+ * @author M. Macernis
+ * @version 2025.4.v1
+ */
+public final class Events {
+
+    private Events() {
+    }
+
+    @Category("BasisSculpt")
+    public abstract static class Phase extends Event {
+
+        @Label("Atom")
+        String atom;
+
+        @Label("Shell Type")
+        String shell;
+
+        @Label("Primitives")
+        int primitives;
+
+        @Label("Steps")
+        @Description("Radial grid steps of the full norm, 0 when no grid is used")
+        int steps;
+
+        @Label("Precision")
+        @Description("Significant digits of the math context")
+        int precision;
+
+        @Label("Engine")
+        @Description("Arithmetic of the radial integrals")
+        String engine;
+
+        /**
+         * Ends the event and commits it with the given fields when a
+         * recording takes it.
+         */
+        public void finish(String atom, String shell, int primitives, int steps, Settings settings) {
+            end();
+            if (shouldCommit()) {
+                this.atom = atom;
+                this.shell = shell;
+                this.primitives = primitives;
+                this.steps = steps;
+                this.precision = settings.getPrecision();
+                this.engine = settings.getEngine();
+                commit();
+            }
+        }
+    }
+
+    @Name("basissculpt.Parse")
+    @Label("Parse")
+    @Description("Reading the --input basis (text or binary library)")
+    public static final class Parse extends Phase {
+    }
+
+    @Name("basissculpt.Atom")
+    @Label("Atom")
+    @Description("Analysis of one atom: its shells and the joined block")
+    public static final class Atom extends Phase {
+    }
+
+    @Name("basissculpt.Block")
+    @Label("Block Analysis")
+    @Description("Full norm and removal table of one block, or the joint integrals of the columns of a shell")
+    public static final class Block extends Phase {
+    }
+
+    @Name("basissculpt.Normalization")
+    @Label("Normalization")
+    @Description("Renormalization of one block")
+    public static final class Normalization extends Phase {
+    }
+
+    @Name("basissculpt.Flush")
+    @Label("Output Flush")
+    @Description("Flush of the log, report, output, results and sweep targets")
+    public static final class Flush extends Phase {
+    }
+}
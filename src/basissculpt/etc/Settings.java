@@ -35,6 +35,10 @@ import java.io.File;
 import java.math.BigDecimal;
 import java.math.MathContext;
 import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
 
 /**
  * BasisSculpt - Sculpting Gaussian Basis Sets via Norm Control
@@ -44,36 +48,156 @@ import java.math.RoundingMode;
  */
 public class Settings {
 
-    private static Settings instance;
+    /**
+     * Digits the double-double kernel carries with a margin for the rounding
+     * of a long sum (106 bits, about 32 digits).
+     */
+    public static final int DOUBLE_DOUBLE_DIGITS = 31;
 
-    public static Settings getInstance() {
-        if (instance == null) {
-            instance = new Settings();
-        }
-        return instance;
-    }
+    private static final int MAX_LEVELS = 64; // of one --threshold range
 
-    private Settings() {
-        threshold();
-        input();
-    }
-    private BigDecimal threshold;
-    private MathContext mc;
+    private final ArgsGet args;
+    private final BigDecimal threshold;
+    private final List<BigDecimal> thresholds;
+    private final MathContext mc;
+    private final boolean doubleDouble;
 
-    private void threshold() {
-        this.threshold = ArgsGet.getInstance().getBigDecimal("threshold");
-        if (threshold == null) {
-            System.err.println(Dic.getMsg("ERROR_THRESHOLD_REQUIRED"));
-            System.exit(1);
+    public Settings(ArgsGet args) {
+        this.args = args;
+        String value = args.getString("threshold");
+        if (value == null || value.isBlank()) {
+            throw new BasisSculptException(Dic.getMsg("ERROR_THRESHOLD_REQUIRED"));
         }
+        this.thresholds = parseThresholds(value);
+        // the strictest threshold decides the precision of the whole run
+        this.threshold = thresholds.get(thresholds.size() - 1);
         int precision = estimatePrecision(threshold);
         this.mc = new MathContext(precision, RoundingMode.HALF_UP);
+        this.doubleDouble = engine(args.getString("engine"), precision);
+    }
+
+    /**
+     * --engine auto|bigdecimal|double-double: arithmetic of the radial
+     * integrals. auto takes double-double when the precision of the run is
+     * beyond a double (16 digits) and within DOUBLE_DOUBLE_DIGITS; lower
+     * precisions keep BigDecimal, whose rounding their results are given at.
+     */
+    private static boolean engine(String value, int precision) {
+        String engine = value == null ? "auto" : value.trim().toLowerCase(Locale.ROOT);
+        return switch (engine) {
+            case "auto" -> precision > 16 && precision <= DOUBLE_DOUBLE_DIGITS;
+            case "bigdecimal" -> false;
+            case "double-double" -> {
+                if (precision > DOUBLE_DOUBLE_DIGITS) {
+                    throw new BasisSculptException(Dic.getMsg("ERROR_ENGINE_PRECISION", precision, DOUBLE_DOUBLE_DIGITS));
+                }
+                yield true;
+            }
+            default -> throw new BasisSculptException(Dic.getMsg("ERROR_ENGINE", value));
+        };
+    }
+
+    /**
+     * True when the radial integrals run on the double-double kernel.
+     */
+    public boolean isDoubleDouble() {
+        return doubleDouble;
     }
 
+    /**
+     * Name of the arithmetic of the radial integrals, as for --engine.
+     */
+    public String getEngine() {
+        return doubleDouble ? "double-double" : "bigdecimal";
+    }
+
+    /**
+     * The strictest of the --threshold values.
+     */
     public BigDecimal getThreshold() {
         return threshold;
     }
 
+    /**
+     * All --threshold values, from the loosest to the strictest.
+     */
+    public List<BigDecimal> getThresholds() {
+        return thresholds;
+    }
+
+    public boolean isSweep() {
+        return thresholds.size() > 1;
+    }
+
+    /**
+     * Allowed relative norm deviation of a threshold: the value itself, or
+     * 10^-value for the integer form (5 for 1e-5).
+     */
+    public static BigDecimal deviation(BigDecimal threshold) {
+        if (threshold.compareTo(BigDecimal.ONE) < 0) {
+            return threshold;
+        }
+        return BigDecimal.ONE.movePointLeft(threshold.intValue());
+    }
+
+    /**
+     * Parses a --threshold value: a single threshold, a comma separated
+     * list, or a range of decades such as 1e-3:1e-10 (or 3:10). The result
+     * is ordered from the loosest to the strictest threshold.
+     */
+    static List<BigDecimal> parseThresholds(String value) {
+        List<BigDecimal> list = new ArrayList<>();
+        try {
+            for (String item : value.split(",")) {
+                String[] range = item.trim().split(":");
+                if (range.length == 1) {
+                    list.add(new BigDecimal(range[0].trim()));
+                } else if (range.length == 2) {
+                    list.addAll(decades(new BigDecimal(range[0].trim()), new BigDecimal(range[1].trim()), item.trim()));
+                } else {
+                    throw new NumberFormatException(item);
+                }
+            }
+        } catch (NumberFormatException e) {
+            throw new BasisSculptException(Dic.getMsg("ERROR_THRESHOLD_FORMAT", value), e);
+        }
+        for (BigDecimal t : list) {
+            if (t.signum() <= 0) {
+                throw new BasisSculptException(Dic.getMsg("ERROR_THRESHOLD_FORMAT", value));
+            }
+        }
+        List<BigDecimal> sorted = new ArrayList<>();
+        list.stream()
+                .sorted(Comparator.comparing(Settings::deviation).reversed())
+                .filter(t -> sorted.isEmpty() || deviation(sorted.get(sorted.size() - 1)).compareTo(deviation(t)) != 0)
+                .forEach(sorted::add);
+        return List.copyOf(sorted);
+    }
+
+    /**
+     * Decades from the loosest end down to the strictest; both ends are
+     * levels even when the range is not a whole number of decades
+     * (1e-3:5e-6 gives 1e-3, 1e-4, 1e-5 and 5e-6).
+     */
+    private static List<BigDecimal> decades(BigDecimal from, BigDecimal to, String range) {
+        boolean small = from.compareTo(BigDecimal.ONE) < 0;
+        if (small != to.compareTo(BigDecimal.ONE) < 0) {
+            throw new NumberFormatException(from + ":" + to);
+        }
+        List<BigDecimal> list = new ArrayList<>();
+        BigDecimal lo = small ? from.min(to) : from.max(to);
+        BigDecimal hi = small ? from.max(to) : from.min(to);
+        for (BigDecimal t = hi; small ? t.compareTo(lo) > 0 : t.compareTo(lo) < 0;
+                t = small ? t.movePointLeft(1) : t.add(BigDecimal.ONE)) {
+            if (list.size() >= MAX_LEVELS - 1) {
+                throw new BasisSculptException(Dic.getMsg("ERROR_THRESHOLD_LEVELS", range, MAX_LEVELS));
+            }
+            list.add(t);
+        }
+        list.add(lo);
+        return list;
+    }
+
     public MathContext getMC() {
         return mc;
     }
@@ -82,6 +206,22 @@ public class Settings {
         return mc.getPrecision();
     }
 
+    /**
+     * --threads: worker threads of the analysis, 0 for all processors.
+     * Default: 1, the atoms are analysed in order on the calling thread.
+     */
+    public int getThreads() {
+        String value = args.getString("threads");
+        if (value == null) {
+            return 1;
+        }
+        Integer threads = args.getInt("threads");
+        if (threads == null || threads < 0) {
+            throw new BasisSculptException(Dic.getMsg("ERROR_THREADS", value));
+        }
+        return threads == 0 ? Runtime.getRuntime().availableProcessors() : threads;
+    }
+
     /**
      * Returns the estimated precision based on the scale of the given
      * BigDecimal.
@@ -92,7 +232,7 @@ public class Settings {
      * @param value the BigDecimal value (default precision is 42 if null)
      * @return estimated precision (scale), or 42 if value is null
      */
-    private int estimatePrecision(BigDecimal value) {
+    private static int estimatePrecision(BigDecimal value) {
         if (value == null) {
             return 42; // default
         }
@@ -102,18 +242,13 @@ public class Settings {
         return value.setScale(0, RoundingMode.HALF_UP).intValue() + 1;
     }
 
-    private File input;
-
     public File getInput() {
-        return input;
+        return resolveInput(args.getString("input"));
     }
 
-    private void input() {
-        String path = ArgsGet.getInstance().getString("input");
-
+    public static File resolveInput(String path) {
         if (path == null || path.isBlank()) {
-            System.err.println(Dic.getMsg("ERROR_FILE_ARGUMENT"));
-            System.exit(1);
+            throw new BasisSculptException(Dic.getMsg("ERROR_FILE_ARGUMENT"));
         }
 
         File file = new File(path);
@@ -121,11 +256,10 @@ public class Settings {
             file = new File(System.getProperty("user.dir"), path);
         }
         if (!file.exists() || !file.isFile() || !file.canRead()) {
-            System.err.println(Dic.getMsg("ERROR_FILE_NOT_FOUND", path));
-            System.exit(1);
+            throw new BasisSculptException(Dic.getMsg("ERROR_FILE_NOT_FOUND", path));
         }
 
-        this.input = file;
+        return file;
     }
 
 }
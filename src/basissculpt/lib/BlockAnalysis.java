@@ -31,10 +31,11 @@
  */
 package basissculpt.lib;
 
+import basissculpt.bin.Context;
 import basissculpt.bin.LogFile;
 import basissculpt.bin.Report;
-import basissculpt.etc.ArgsGet;
 import basissculpt.etc.Dic;
+import basissculpt.etc.Events;
 import basissculpt.etc.Settings;
 import java.math.BigDecimal;
 import java.math.MathContext;
@@ -44,38 +45,283 @@ import java.util.List;
 /**
  * BasisSculpt - Sculpting Gaussian Basis Sets via Norm Control
  *
+ * Norm analysis of one block. A shell or subblock is integrated on its radial
+ * grid for the full norm and again for every partial norm. The joined atom
+ * block is built from the overlap matrices of its shells and its partial
+ * norms are obtained by downdating the full norm. The columns of a general
+ * contraction (the subblocks of an SP/SPD shell or a shell with several
+ * coefficient columns) share their exponents and are integrated together,
+ * see evaluateTogether. With --screen only the primitives the bounds of
+ * Screening leave undecided are integrated again; the partial norms of the
+ * others are downdated from the overlap matrix.
+ *
  * @author M. Macernis
  * @version 2025.4.v1
  */
 public class BlockAnalysis {
 
-    private final String blockText;
+    private final String atom;
+    private final String shell;
+    private final boolean joined;         // of the shells of an atom, from their overlaps
     private final List<PrimitiveBig> basis;
-    private final LogFile log = LogFile.getInstance();
-    private final Report report = Report.getInstance();
+    private final Context ctx;
+    private final LogFile log;
+    private final Report report;
+    private final MathContext mc;
+    private Overlap overlap;
+    private ContractedBig full;           // the block on its radial grid, built once
+    private BigDecimal rMax;
+    private int steps;
     private BigDecimal normFull;
-    private static final MathContext mc = Settings.getInstance().getMC();
+    private BlockAnalysis sharedWith;     // first column over the same exponents
+    private BigDecimal jointFull;         // norms from evaluateTogether
+    private BigDecimal[] jointPartials;
+    private BigDecimal[] jointPartialsMax; // their upper bounds (--early-stop)
+    private ContractedBig jointNormalized;
+    private BigDecimal jointNormalizedNorm;
+    private Screening screening;          // --screen, null otherwise
 
-    public BlockAnalysis(String blockText) {
-        this.blockText = blockText;
-        basis = parseTextBlock(blockText);
+    public BlockAnalysis(String atom, String shell, String blockText, Context ctx) {
+        this(atom, shell, ctx, parseTextBlock(blockText, ctx.mc()));
     }
 
-    public void fullNorm() {
-        // Apskaičiuojame bendrą absoliučių įnašų sumą
-        BigDecimal totalContribution = BigDecimal.ZERO;
-        List<BigDecimal> individualContributions = new ArrayList<>();
-        for (PrimitiveBig p : basis) {
-            BigDecimal contribution = p.c.multiply(p.N, mc).abs(mc);
-            individualContributions.add(contribution);
-            totalContribution = totalContribution.add(contribution, mc);
+    /**
+     * Block of the given primitives, e.g. taken from a binary library
+     * without text.
+     */
+    public static BlockAnalysis of(String atom, String shell, List<PrimitiveBig> primitives, Context ctx) {
+        return new BlockAnalysis(atom, shell, ctx, primitives);
+    }
+
+    private BlockAnalysis(String atom, String shell, Context ctx, List<PrimitiveBig> basis) {
+        this.atom = atom;
+        this.shell = shell;
+        this.joined = false;
+        this.ctx = ctx;
+        this.log = ctx.log;
+        this.report = ctx.report;
+        this.mc = ctx.mc();
+        this.basis = basis;
+    }
+
+    /**
+     * Joined block of the given parts (shells and subblocks of one atom), in
+     * the order of their primitives.
+     */
+    public BlockAnalysis(String atom, String shell, List<BlockAnalysis> parts, Context ctx) {
+        this.atom = atom;
+        this.shell = shell;
+        this.joined = true;
+        this.ctx = ctx;
+        this.log = ctx.log;
+        this.report = ctx.report;
+        this.mc = ctx.mc();
+        List<Overlap> overlaps = new ArrayList<>();
+        for (BlockAnalysis part : parts) {
+            overlaps.add(part.overlap());
+        }
+        this.overlap = Overlap.join(overlaps, mc);
+        this.basis = overlap.primitives;
+    }
+
+    /**
+     * Overlap matrix of the primitives of this block, computed once.
+     */
+    public Overlap overlap() {
+        if (overlap == null) {
+            overlap = sharedWith != null ? sharedWith.overlap().with(basis) : Overlap.of(basis, mc);
+        }
+        return overlap;
+    }
+
+    /**
+     * Full and partial norms of the columns of a general contraction. The
+     * columns share the exponents, hence the radial grids; every grid pass
+     * evaluates all columns at once (ContractedBig.norms) and they share one
+     * overlap matrix. The values are those allPartialNorms() of each column
+     * would compute; it reports them. With normalize the unit norm columns
+     * (those normalizeBlock scales directly, without negative coefficients)
+     * are prepared the same way. Columns over different exponents are left
+     * to be evaluated one by one.
+     */
+    public static void evaluateTogether(List<BlockAnalysis> columns, boolean normalize) {
+        if (columns.size() < 2) {
+            return;
+        }
+        BlockAnalysis first = columns.get(0);
+        List<ContractedBig> fulls = new ArrayList<>();
+        for (BlockAnalysis column : columns) {
+            if (column.joined || column.basis.size() != first.basis.size()) {
+                return;
+            }
+            fulls.add(new ContractedBig(column.basis, column.ctx));
+            if (!fulls.get(0).sameExponents(fulls.get(fulls.size() - 1))) {
+                return;
+            }
+        }
+        for (BlockAnalysis column : columns.subList(1, columns.size())) {
+            column.sharedWith = first;
+        }
+        int n = first.basis.size();
+        if (n <= 1) {
+            return;
+        }
+
+        Events.Block event = new Events.Block();
+        event.begin();
+        BigDecimal rMax = Tools.suggestRmax(fulls.get(0));
+        int steps = Tools.suggestSteps(rMax, first.mc);
+        BigDecimal[] full = ContractedBig.norms(fulls, BigDecimal.ZERO, rMax, steps);
+        if (normalize) {
+            List<BlockAnalysis> positive = new ArrayList<>();
+            List<ContractedBig> normalized = new ArrayList<>();
+            for (int k = 0; k < columns.size(); k++) {
+                if (full[k].signum() > 0 && columns.get(k).basis.stream().noneMatch(p -> p.c.signum() < 0)) {
+                    positive.add(columns.get(k));
+                    normalized.add(fulls.get(k).normalize(full[k]));
+                }
+            }
+            if (!normalized.isEmpty()) {
+                BigDecimal[] norms = ContractedBig.norms(normalized, BigDecimal.ZERO, rMax, steps);
+                for (int k = 0; k < positive.size(); k++) {
+                    positive.get(k).jointNormalized = normalized.get(k);
+                    positive.get(k).jointNormalizedNorm = norms[k];
+                }
+            }
+        }
+        List<Screening> screens = new ArrayList<>();
+        for (int k = 0; k < columns.size(); k++) {
+            Screening screen = columns.get(k).screen(full[k]);
+            if (screen != null) {
+                screens.add(screen);
+                columns.get(k).screening = screen;
+            }
+        }
+        double[][] cuts = new double[columns.size()][];
+        boolean bounded = false;
+        for (int k = 0; k < columns.size(); k++) {
+            cuts[k] = columns.get(k).cuts(full[k]);
+            bounded |= cuts[k] != null;
+        }
+        BigDecimal[][] partials = new BigDecimal[columns.size()][n];
+        BigDecimal[][] partialsMax = new BigDecimal[columns.size()][n];
+        for (int i = 0; i < n; i++) {
+            final int row = i;
+            if (!screens.isEmpty() && screens.stream().allMatch(screen -> screen.isDecided(row))) {
+                continue; // downdated in allPartialNorms
+            }
+            List<ContractedBig> reduced = new ArrayList<>();
+            for (BlockAnalysis column : columns) {
+                List<PrimitiveBig> primitives = new ArrayList<>(column.basis);
+                primitives.remove(i);
+                reduced.add(new ContractedBig(primitives, column.ctx));
+            }
+            BigDecimal rMaxRed = Tools.suggestRmax(reduced.get(0));
+            BigDecimal[][] norms = ContractedBig.normBounds(reduced, BigDecimal.ZERO, rMaxRed,
+                    Tools.suggestSteps(rMaxRed, first.mc), bounded ? cuts : null);
+            for (int k = 0; k < columns.size(); k++) {
+                partials[k][i] = norms[0][k];
+                partialsMax[k][i] = norms[1][k];
+            }
+        }
+        for (int k = 0; k < columns.size(); k++) {
+            columns.get(k).jointFull = full[k];
+            columns.get(k).jointPartials = partials[k];
+            columns.get(k).jointPartialsMax = partialsMax[k];
+        }
+        int colon = first.shell.indexOf(':'); // the shell of the columns, e.g. SP of SP:S
+        event.finish(first.atom, colon < 0 ? first.shell : first.shell.substring(0, colon), n, steps,
+                first.ctx.settings);
+    }
+
+    /**
+     * The whole analysis of the block in one stage: full norm, removals with
+     * contributions and, with normalize, the normalized primitives. The block
+     * is parsed once; its radial grid and full norm are computed once and
+     * shared by the partial norms and the normalization.
+     */
+    public BlockResult analyse(boolean normalize) {
+        BlockResult result = allPartialNorms();
+        return normalize ? result.withNormalized(normalizeBlock()) : result;
+    }
+
+    /**
+     * Analytic derivatives of the norm and of the removal losses of this
+     * block by every coefficient and exponent, from its overlap matrix.
+     */
+    public Sensitivity sensitivity() {
+        return Sensitivity.of(overlap());
+    }
+
+    public BigDecimal fullNorm() {
+        if (normFull == null) {
+            if (joined) {
+                normFull = overlap.norm(overlap.projections());
+            } else if (jointFull != null) {
+                normFull = jointFull;
+            } else {
+                quadratureNorm();
+            }
+        }
+        log.info("INFO_FULL_NORM", normFull.doubleValue());
+        return normFull;
+    }
+
+    /**
+     * The contraction of the block with its radial grid (rMax, steps).
+     */
+    private ContractedBig full() {
+        if (full == null) {
+            full = new ContractedBig(basis, ctx);
+            rMax = Tools.suggestRmax(full);
+            steps = Tools.suggestSteps(rMax, mc);
+        }
+        return full;
+    }
+
+    /**
+     * Full norm integrated on the radial grid, unless already known.
+     */
+    private BigDecimal quadratureNorm() {
+        if (normFull == null) {
+            normFull = full().norm(BigDecimal.ZERO, rMax, steps);
+        }
+        return normFull;
+    }
+
+    /**
+     * Bounds for the primitives of this block of the given full norm
+     * against the thresholds of the run, null without --screen.
+     */
+    private Screening screen(BigDecimal norm) {
+        if (!ctx.args.isKey("screen")) {
+            return null;
         }
+        List<BigDecimal> allowed = new ArrayList<>();
+        for (BigDecimal threshold : ctx.settings.getThresholds()) {
+            allowed.add(Settings.deviation(threshold));
+        }
+        return Screening.of(basis, norm, allowed);
+    }
 
-        ContractedBig full = new ContractedBig(basis);
-        BigDecimal rMax = Tools.suggestRmax(full);
-        int steps = Tools.suggestSteps(rMax);
-        normFull = full.norm(BigDecimal.ZERO, rMax, steps);
-        log.println(Dic.getMsg("INFO_FULL_NORM", normFull.doubleValue()));
+    /**
+     * --early-stop: the partial norms at which a removal loss equals the
+     * allowed deviation of a threshold, N·(1 - d) and N·(1 + d); a partial
+     * norm certainly away from all of them needs no more of the grid. Null
+     * otherwise.
+     */
+    private double[] cuts(BigDecimal norm) {
+        if (!ctx.args.isKey("early-stop") || !(norm.doubleValue() > 1e-12)) {
+            return null;
+        }
+        List<BigDecimal> thresholds = ctx.settings.getThresholds();
+        double[] cuts = new double[2 * thresholds.size()];
+        for (int t = 0; t < thresholds.size(); t++) {
+            double d = Settings.deviation(thresholds.get(t)).doubleValue();
+            cuts[2 * t] = norm.doubleValue() * (1 - d);
+            cuts[2 * t + 1] = norm.doubleValue() * (1 + d);
+        }
+        return cuts;
     }
 
     public BigDecimal partialNormExcluding(int indexToIgnore) {
@@ -90,20 +336,22 @@ public class BlockAnalysis {
             }
         }
 
-        ContractedBig contracted = new ContractedBig(reduced);
+        ContractedBig contracted = new ContractedBig(reduced, ctx);
         BigDecimal rMax = Tools.suggestRmax(contracted);
-        int steps = Tools.suggestSteps(rMax);
+        int steps = Tools.suggestSteps(rMax, mc);
         BigDecimal norm = contracted.norm(BigDecimal.ZERO, rMax, steps);
 
-        log.println(Dic.getMsg("INFO_PARTIAL_NORM", indexToIgnore + 1, norm.doubleValue()));
+        log.detail("INFO_PARTIAL_NORM", indexToIgnore + 1, norm.doubleValue());
         return norm;
     }
 
-    public void allPartialNorms() {
+    public BlockResult allPartialNorms() {
         if (basis.size() <= 1) {
-            log.println(Dic.getMsg("INFO_NO_REDUCTION_POSSIBLE"));
-            return;
+            log.info("INFO_NO_REDUCTION_POSSIBLE");
+            return new BlockResult(atom, shell, null, List.of(), List.of());
         }
+        Events.Block event = new Events.Block();
+        event.begin();
 
         // Pilna norma
         BigDecimal totalContribution = BigDecimal.ZERO;
@@ -114,110 +362,192 @@ public class BlockAnalysis {
             totalContribution = totalContribution.add(contribution, mc);
         }
 
-        ContractedBig full = new ContractedBig(basis);
-        BigDecimal rMax = Tools.suggestRmax(full);
-        int steps = Tools.suggestSteps(rMax);
-        normFull = full.norm(BigDecimal.ZERO, rMax, steps);
-        log.println(Dic.getMsg("INFO_FULL_NORM", normFull.doubleValue()));
+        BigDecimal[] projections = null;
+        if (joined) {
+            projections = overlap.projections();
+            normFull = overlap.norm(projections);
+        } else if (jointFull != null) {
+            normFull = jointFull;
+        } else {
+            quadratureNorm();
+        }
+        if (!joined && screening == null) {
+            screening = screen(normFull);
+        }
+        BigDecimal[] downdate = null;
+        if (screening != null && screening.count(Screening.Verdict.UNDECIDED) < basis.size()) {
+            downdate = overlap().projections(); // the matrix is needed for the joined block anyway
+        }
+        // fidelity of each removal from the overlap matrix, O(n) per removal, only when reported
+        boolean showFidelity = ctx.args.isKey("fidelity");
+        BigDecimal[] fit = null;
+        BigDecimal analyticFull = null;
+        if (showFidelity || ctx.args.isKey("results")) {
+            fit = projections != null ? projections : downdate != null ? downdate : overlap().projections();
+            analyticFull = overlap().norm(fit);
+        }
+        log.info("INFO_FULL_NORM", normFull.doubleValue());
         report.println(Dic.getMsg("INFO_FULL_NORM", normFull.doubleValue()));
-        report.println(Dic.getMsg("INFO_REMOVE_HEADE_REPORT"));
+        report.println(Dic.getMsg(showFidelity ? "INFO_REMOVE_HEADE_REPORT_FIDELITY" : "INFO_REMOVE_HEADE_REPORT"));
 
+        double[] cuts = cuts(normFull);
+        int integrated = 0;
+        int stopped = 0;
+        List<Removal> removals = new ArrayList<>();
         for (int i = 0; i < basis.size(); i++) {
-            // Reduced basis without i component
-            List<PrimitiveBig> reduced = new ArrayList<>();
-            for (int j = 0; j < basis.size(); j++) {
-                if (j != i) {
-                    reduced.add(basis.get(j));
+            BigDecimal normPartial;
+            BigDecimal normMax = null; // --early-stop: the partial norm is within [normPartial, normMax]
+            BigDecimal loss = BigDecimal.ZERO;
+            if (projections != null) {
+                BigDecimal removed = overlap.removed(i, projections);
+                normPartial = normFull.subtract(removed, mc);
+                if (normFull.doubleValue() > 1e-12) {
+                    loss = removed.divide(normFull, mc).multiply(BigDecimal.valueOf(100), mc);
+                }
+            } else if (downdate != null && screening.isDecided(i)) {
+                BigDecimal removed = overlap.removed(i, downdate);
+                normPartial = normFull.subtract(removed, mc);
+                if (normFull.doubleValue() > 1e-12) {
+                    loss = removed.divide(normFull, mc).multiply(BigDecimal.valueOf(100), mc);
+                }
+            } else if (jointPartials != null) {
+                integrated++;
+                normPartial = jointPartials[i];
+                if (jointPartialsMax[i].compareTo(normPartial) != 0) {
+                    normMax = jointPartialsMax[i];
+                }
+                if (normFull.doubleValue() > 1e-12) {
+                    loss = normFull.subtract(normPartial, mc)
+                            .divide(normFull, mc)
+                            .multiply(BigDecimal.valueOf(100), mc);
+                }
+            } else {
+                // Reduced basis without i component
+                List<PrimitiveBig> reduced = new ArrayList<>();
+                for (int j = 0; j < basis.size(); j++) {
+                    if (j != i) {
+                        reduced.add(basis.get(j));
+                    }
                 }
-            }
 
-            ContractedBig contracted = new ContractedBig(reduced);
-            BigDecimal rMaxRed = Tools.suggestRmax(contracted);
-            int stepsRed = Tools.suggestSteps(rMaxRed);
-            BigDecimal normPartial = contracted.norm(BigDecimal.ZERO, rMaxRed, stepsRed);
+                ContractedBig contracted = new ContractedBig(reduced, ctx);
+                BigDecimal rMaxRed = Tools.suggestRmax(contracted);
+                int stepsRed = Tools.suggestSteps(rMaxRed, mc);
+                integrated++;
+                if (cuts == null) {
+                    normPartial = contracted.norm(BigDecimal.ZERO, rMaxRed, stepsRed);
+                } else {
+                    BigDecimal[] bounds = contracted.normBounds(BigDecimal.ZERO, rMaxRed, stepsRed, cuts);
+                    normPartial = bounds[0];
+                    if (bounds[1].compareTo(bounds[0]) != 0) {
+                        normMax = bounds[1];
+                    }
+                }
 
-            double loss = 0.0;
-            if (normFull.doubleValue() > 1e-12) {
-                loss = normFull.subtract(normPartial, mc)
-                        .divide(normFull, mc)
-                        .multiply(BigDecimal.valueOf(100), mc)
-                        .doubleValue();
+                if (normFull.doubleValue() > 1e-12) {
+                    loss = normFull.subtract(normPartial, mc)
+                            .divide(normFull, mc)
+                            .multiply(BigDecimal.valueOf(100), mc);
+                }
             }
 
-            double inasas = 0.0;
+            BigDecimal inasas = BigDecimal.ZERO;
             if (totalContribution.signum() != 0) {
                 inasas = individualContributions.get(i)
                         .divide(totalContribution, mc)
-                        .multiply(BigDecimal.valueOf(100), mc)
-                        .doubleValue();
+                        .multiply(BigDecimal.valueOf(100), mc);
             }
 
-            log.println(Dic.getMsg(
-                    "INFO_REMOVE_ENTRY",
-                    i + 1,
-                    basis.get(i).alpha.doubleValue(),
-                    normPartial.doubleValue(),
-                    loss,
-                    inasas
-            ));
-
-            report.println(Dic.getMsg(
-                    "INFO_REMOVE_ENTRY_REPORT",
-                    i + 1,
-                    basis.get(i).alpha.doubleValue(),
-                    normPartial.doubleValue(),
-                    loss,
-                    inasas
-            ));;
-            
+            BigDecimal infidelity = fit != null ? overlap().infidelity(i, fit, analyticFull) : null;
+            BigDecimal fidelity = infidelity != null ? BigDecimal.ONE.subtract(infidelity, mc) : null;
+            BigDecimal lossMin = null;
+            List<Object> row = new ArrayList<>(List.of(i + 1, basis.get(i).alpha.doubleValue(),
+                    normPartial.doubleValue()));
+            if (normMax != null) {
+                stopped++;
+                lossMin = BigDecimal.ZERO;
+                if (normFull.doubleValue() > 1e-12) {
+                    lossMin = normFull.subtract(normMax, mc)
+                            .divide(normFull, mc)
+                            .multiply(BigDecimal.valueOf(100), mc);
+                }
+                row.add(normMax.doubleValue());
+                row.add(lossMin.doubleValue());
+            }
+            row.add(loss.doubleValue());
+            row.add(inasas.doubleValue());
+            if (showFidelity) {
+                row.add(fidelity.doubleValue());
+                row.add(infidelity.doubleValue());
+            }
+            String variant = (normMax != null ? "_BOUND" : "") + (showFidelity ? "_FIDELITY" : "");
+            log.detail("INFO_REMOVE_ENTRY" + variant, row.toArray());
+            report.println(Dic.getMsg("INFO_REMOVE_ENTRY_REPORT" + variant, row.toArray()));
+            removals.add(new Removal(i + 1, basis.get(i).alpha, normPartial, loss, inasas, fidelity, infidelity,
+                    normMax, lossMin));
+        }
+        if (screening != null) {
+            log.info("INFO_SCREENING", screening.count(Screening.Verdict.KEEP),
+                    screening.count(Screening.Verdict.REMOVABLE), screening.count(Screening.Verdict.UNDECIDED));
+        }
+        if (cuts != null && integrated > 0) {
+            log.info("INFO_EARLY_STOP", stopped, integrated);
         }
+        event.finish(atom, shell, basis.size(), steps, ctx.settings);
+        return new BlockResult(atom, shell, normFull, removals, List.of());
     }
 
     public List<PrimitiveBig> normalizeBlock() {
-        log.println(Dic.getMsg("INFO_NORMALIZATION_SEPARATOR"));
+        Events.Normalization event = new Events.Normalization();
+        event.begin();
+        log.info("INFO_NORMALIZATION_SEPARATOR");
         long negative = basis.stream()
                 .map(p -> p.c)
                 .filter(c -> c.compareTo(BigDecimal.ZERO) < 0)
                 .count();
 
-        ContractedBig full = new ContractedBig(basis);
-        BigDecimal rMax = Tools.suggestRmax(full);
-        int steps = Tools.suggestSteps(rMax);
+        ContractedBig full = full();
 
         ContractedBig fullNormalized;
-        if (negative == 0) {
-            fullNormalized = full.normalize(BigDecimal.ZERO, rMax, steps);
+        if (negative == 0 && jointNormalized != null) {
+            fullNormalized = jointNormalized;
+        } else if (negative == 0) {
+            fullNormalized = full.normalize(quadratureNorm()); // the norm of allPartialNorms
         } else {
             fullNormalized = full.normalizeViaProjection(BigDecimal.ZERO, rMax, steps);
         }
 
-        BigDecimal normFullNormalized = fullNormalized.norm(BigDecimal.ZERO, rMax, steps);
-        log.println(Dic.getMsg("INFO_FULL_NORMALIZED_NORM", normFullNormalized.doubleValue()));
+        BigDecimal normFullNormalized = jointNormalizedNorm != null ? jointNormalizedNorm
+                : fullNormalized.norm(BigDecimal.ZERO, rMax, steps);
+        log.info("INFO_FULL_NORMALIZED_NORM", normFullNormalized.doubleValue());
 
         List<PrimitiveBig> fullNormalizedOrdered = fullNormalized.getPrimitivesInOriginalOrder(full.originalAlphaOrder);
-        for (PrimitiveBig p : fullNormalizedOrdered) {
-            String alphaStr = String.format("%.6E", p.alpha.doubleValue()).replace('E', 'D');
-            String cStr = String.format("%.6E", p.c.doubleValue()).replace('E', 'D');
-            String line = String.format("      %s          %s", alphaStr, cStr);
-            if (p.c.compareTo(BigDecimal.ZERO) >= 0) {
-                line = line.replace("          ", "           "); // atitinka vizualų stumdymą
+        if (log.isEnabled(LogFile.Level.DETAIL)) {
+            for (PrimitiveBig p : fullNormalizedOrdered) {
+                String alphaStr = String.format("%.6E", p.alpha.doubleValue()).replace('E', 'D');
+                String cStr = String.format("%.6E", p.c.doubleValue()).replace('E', 'D');
+                String line = String.format("      %s          %s", alphaStr, cStr);
+                if (p.c.compareTo(BigDecimal.ZERO) >= 0) {
+                    line = line.replace("          ", "           "); // atitinka vizualų stumdymą
+                }
+                log.println(line);
             }
-            log.println(line);
         }
 
-        if (ArgsGet.getInstance().isKey("verbose")) {
-            log.println(Dic.getMsg("INFO_VERBOSE_NORMALIZATION"));
+        if (log.isEnabled(LogFile.Level.VERBOSE)) {
+            log.verbose("INFO_VERBOSE_NORMALIZATION");
             for (PrimitiveBig p : fullNormalizedOrdered) {
                 log.println("Alfa: " + p.alpha);
                 log.println("C: " + p.c);
             }
         }
 
-        log.println(Dic.getMsg("INFO_NORMALIZATION_SEPARATOR"));
+        log.info("INFO_NORMALIZATION_SEPARATOR");
+        event.finish(atom, shell, basis.size(), steps, ctx.settings);
         return fullNormalizedOrdered;
     }
 
-    private static List<PrimitiveBig> parseTextBlock(String text) {
+    private static List<PrimitiveBig> parseTextBlock(String text, MathContext mc) {
         List<PrimitiveBig> primitives = new ArrayList<>();
         String[] lines = text.strip().split("\\R");
         for (String line : lines) {
@@ -228,7 +558,7 @@ public class BlockAnalysis {
             if (parts.length >= 2) {
                 BigDecimal alpha = new BigDecimal(parts[0].replace("D", "E"), mc);
                 BigDecimal c = new BigDecimal(parts[1].replace("D", "E"), mc);
-                primitives.add(new PrimitiveBig(alpha, c));
+                primitives.add(new PrimitiveBig(alpha, c, mc));
             }
         }
         return primitives;
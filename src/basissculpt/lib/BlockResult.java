@@ -0,0 +1,67 @@
+/*
+ * BSD 3-Clause License
+ * 
+ * Copyright (c) 2025, M. Macernis
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation 
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors 
+ *    may be used to endorse or promote products derived from this software 
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE 
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER 
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, 
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE 
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package basissculpt.lib;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * BasisSculpt - Sculpting Gaussian Basis Sets via Norm Control
+ *
+ * Result of the analysis of one block (shell, subblock or the joined atom
+ * block): full norm, per primitive removals and, with --normalize, the
+ * normalized primitives.
+ *
+ * @author M. Macernis
+ * @version 2025.4.v1
+ */
+public final class BlockResult {
+
+    public final String atom;
+    public final String shell;        // e.g. "S", "SP:P" or "ALL"
+    public final BigDecimal fullNorm; // null when there is nothing to reduce
+    public final List<Removal> removals;
+    public final List<PrimitiveBig> normalized;
+
+    public BlockResult(String atom, String shell, BigDecimal fullNorm,
+            List<Removal> removals, List<PrimitiveBig> normalized) {
+        this.atom = atom;
+        this.shell = shell;
+        this.fullNorm = fullNorm;
+        this.removals = List.copyOf(removals);
+        this.normalized = List.copyOf(normalized);
+    }
+
+    public BlockResult withNormalized(List<PrimitiveBig> primitives) {
+        return new BlockResult(atom, shell, fullNorm, removals, primitives);
+    }
+}
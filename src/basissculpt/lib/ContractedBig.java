@@ -32,9 +32,8 @@
 
 package basissculpt.lib;
 
-import basissculpt.bin.LogFile;
+import basissculpt.bin.Context;
 import basissculpt.etc.Dic;
-import basissculpt.etc.Settings;
 import ch.obermuhlner.math.big.BigDecimalMath;
 import java.math.BigDecimal;
 import java.math.MathContext;
@@ -43,56 +42,275 @@ import java.util.*;
 /**
  * BasisSculpt - Sculpting Gaussian Basis Sets via Norm Control
  *
+ * Contracted radial function Σ c·N·exp(-α·r²) and its radial integrals.
+ *
+ * The kernels skip only what cannot change the rounded result: a primitive
+ * beyond its cutoff radius, where exp(-α·r²) is 0.0 in double; a primitive
+ * whose contribution is below a hundredth of the last digit of the partial
+ * sum; and the rest of the grid once the bound of every remaining term is
+ * below that limit for the integral.
+ *
+ * Runs at 17 to 31 digits integrate on the double-double kernel
+ * (Settings.isDoubleDouble): the same grid, the same exp(-α·r²) in double
+ * and the same skipped terms, the sums kept in DoubleDouble instances that
+ * are updated in place instead of a BigDecimal per operation; the result
+ * is rounded to the precision of the run.
+ *
+ * normBounds() may stop before the end of the grid: the terms of a norm are
+ * not negative, so the running sum is a lower bound, and beyond
+ * 1/sqrt(2·α_min) the rest of the grid is bounded by the Gaussian tail
+ * integral of Σ |c·N|·exp(-α·r²). The integration stops once no cut (e.g.
+ * a partial norm at a threshold) lies between the bounds.
+ *
  * @author M. Macernis
  * @version 2025.4.v1
  */
 public class ContractedBig {
 
-    private static final MathContext mc = Settings.getInstance().getMC();
-    private static final BigDecimal FOUR_PI = new BigDecimal(4 * Math.PI, mc);
+    private final Context ctx;
+    private final MathContext mc;
+    private final BigDecimal fourPi;
 
-    public List<PrimitiveBig> primitives;
-    public List<BigDecimal> originalAlphaOrder;
-    
-    private static LogFile log = LogFile.getInstance();
+    // exp(-x) is 0.0 for x above ~745.14; margin for the rounding of α·r²
+    private static final double UNDERFLOW = 750.0;
+    // grid points between two checks of the bounds of a bounded norm
+    private static final int CHECK = 32;
+
+    private final BigDecimal[] cN;     // c·N, as in PrimitiveBig.value
+    private final double[] alpha;
+    private final double[] absCN;
+    private final double[] cutoff2;    // r² beyond which the primitive is 0.0
+    private final double alphaMin;
+    private final double negligible;   // relative size of a term that cannot change a sum
+    private final double margin;       // bound of the rounding of a computed term
+    private final double slack;        // relative rounding of a sum at the precision of the run
+    private final boolean singleSign;
+    private final boolean doubleDouble;
+    private final double[] cNHi;       // c·N and α as double-double, for that kernel
+    private final double[] cNLo;
+    private final double[] alphaHi;
+    private final double[] alphaLo;
+
+    public final List<PrimitiveBig> primitives;
+    public final List<BigDecimal> originalAlphaOrder;
 
-    public ContractedBig(List<PrimitiveBig> primitives) {
+    public ContractedBig(List<PrimitiveBig> primitives, Context ctx) {
+        this.ctx = ctx;
+        this.mc = ctx.mc();
+        this.fourPi = new BigDecimal(4 * Math.PI, mc);
         this.primitives = primitives;
         this.originalAlphaOrder = new ArrayList<>();
         for (PrimitiveBig p : primitives) {
             this.originalAlphaOrder.add(p.alpha);
         }
+
+        int n = primitives.size();
+        this.cN = new BigDecimal[n];
+        this.alpha = new double[n];
+        this.absCN = new double[n];
+        this.cutoff2 = new double[n];
+        double min = Double.POSITIVE_INFINITY;
+        int positive = 0;
+        for (int i = 0; i < n; i++) {
+            PrimitiveBig p = primitives.get(i);
+            cN[i] = p.c.multiply(p.N, mc);
+            alpha[i] = p.alpha.doubleValue();
+            absCN[i] = Math.abs(cN[i].doubleValue());
+            cutoff2[i] = UNDERFLOW / alpha[i];
+            min = Math.min(min, alpha[i]);
+            if (cN[i].signum() >= 0) {
+                positive++;
+            }
+        }
+        this.singleSign = positive == 0 || positive == n;
+        this.doubleDouble = ctx.settings.isDoubleDouble();
+        this.cNHi = new double[doubleDouble ? n : 0];
+        this.cNLo = new double[cNHi.length];
+        this.alphaHi = new double[cNHi.length];
+        this.alphaLo = new double[cNHi.length];
+        DoubleDouble x = new DoubleDouble();
+        for (int i = 0; i < cNHi.length; i++) {
+            x.set(cN[i]);
+            cNHi[i] = x.hi;
+            cNLo[i] = x.lo;
+            x.set(primitives.get(i).alpha);
+            alphaHi[i] = x.hi;
+            alphaLo[i] = x.lo;
+        }
+        this.alphaMin = min;
+        this.negligible = Math.pow(10, -(mc.getPrecision() + 2));
+        double rounding = 1 + (n + 4) * Math.pow(10, 1 - mc.getPrecision());
+        this.margin = 2 * rounding * rounding;
+        this.slack = Math.pow(10, 2 - mc.getPrecision());
+    }
+
+    /**
+     * Contraction of other primitives in the same context.
+     */
+    public ContractedBig with(List<PrimitiveBig> other) {
+        return new ContractedBig(other, ctx);
+    }
+
+    public MathContext mc() {
+        return mc;
     }
 
     public BigDecimal phi(BigDecimal r) {
-        return primitives.stream()
-                .map(p -> p.value(r))
-                .reduce(BigDecimal.ZERO, (a, b) -> a.add(b, mc));
+        BigDecimal r2 = r.multiply(r, mc);
+        double[] exp = new double[cN.length];
+        BigDecimal[] expBig = new BigDecimal[cN.length];
+        exps(r2, exp, expBig);
+        return phi2(exp, expBig);
     }
 
-    public BigDecimal norm(BigDecimal rMin, BigDecimal rMax, int steps) {
-        BigDecimal dr = rMax.subtract(rMin, mc).divide(BigDecimal.valueOf(steps), mc);
+    /**
+     * exp(-α·r²) of every primitive at r², NaN beyond its cutoff, where it
+     * underflows to 0.0. It depends on the exponents only and is shared by
+     * contractions over the same exponents, as is its BigDecimal form, which
+     * phi2 fills in for the terms it uses.
+     */
+    private void exps(BigDecimal r2, double[] exp, BigDecimal[] expBig) {
+        Arrays.fill(expBig, null);
+        double r2d = r2.doubleValue();
+        for (int i = 0; i < cN.length; i++) {
+            exp[i] = r2d > cutoff2[i] ? Double.NaN
+                    : Math.exp(primitives.get(i).alpha.multiply(r2, mc).negate().doubleValue());
+        }
+    }
+
+    private BigDecimal phi2(double[] exp, BigDecimal[] expBig) {
         BigDecimal sum = BigDecimal.ZERO;
-        for (int i = 0; i <= steps; i++) {
-            BigDecimal r = rMin.add(dr.multiply(BigDecimal.valueOf(i), mc), mc);
-            BigDecimal val = phi(r);
-            BigDecimal term = val.multiply(val, mc)
-                                 .multiply(FOUR_PI, mc)
-                                 .multiply(r.pow(2, mc), mc)
-                                 .multiply(dr, mc);
-            sum = sum.add(term, mc);
+        double limit = 0.0;
+        for (int i = 0; i < cN.length; i++) {
+            double expVal = exp[i];
+            if (Double.isNaN(expVal)) {
+                continue; // exp(-α·r²) underflows to 0.0
+            }
+            if (absCN[i] * expVal < limit) {
+                continue; // below a hundredth of the last digit of the sum
+            }
+            if (expBig[i] == null) {
+                expBig[i] = BigDecimal.valueOf(expVal);
+            }
+            sum = sum.add(cN[i].multiply(expBig[i], mc), mc);
+            limit = Math.abs(sum.doubleValue()) * negligible;
         }
         return sum;
     }
 
+    /**
+     * exps() on the double-double kernel; x is scratch.
+     */
+    private void exps(DoubleDouble r2, DoubleDouble x, double[] exp) {
+        double r2d = r2.hi;
+        for (int i = 0; i < exp.length; i++) {
+            exp[i] = r2d > cutoff2[i] ? Double.NaN
+                    : Math.exp(-x.set(alphaHi[i], alphaLo[i]).multiply(r2).doubleValue());
+        }
+    }
+
+    /**
+     * phi2() on the double-double kernel, into sum; term is scratch.
+     */
+    private DoubleDouble phi2(double[] exp, DoubleDouble sum, DoubleDouble term) {
+        sum.set(0.0, 0.0);
+        double limit = 0.0;
+        for (int i = 0; i < exp.length; i++) {
+            double expVal = exp[i];
+            if (Double.isNaN(expVal)) {
+                continue; // exp(-α·r²) underflows to 0.0
+            }
+            if (absCN[i] * expVal < limit) {
+                continue; // below a hundredth of the last digit of the sum
+            }
+            sum.add(term.set(cNHi[i], cNLo[i]).multiply(expVal));
+            limit = Math.abs(sum.hi) * negligible;
+        }
+        return sum;
+    }
+
+    /**
+     * Upper bound of |phi| at r², Σ |c·N|·exp(-α·r²).
+     */
+    private double bound(double r2d) {
+        double b = 0.0;
+        for (int i = 0; i < alpha.length; i++) {
+            if (r2d <= cutoff2[i]) {
+                b += absCN[i] * Math.exp(-alpha[i] * r2d);
+            }
+        }
+        return b;
+    }
+
+    /**
+     * Upper bound of the sum of the norm terms 4π·r²·phi²·dr of the grid
+     * from r on, for r where r²·bound()² decreases (beyond 1/sqrt(2·α_min)):
+     * the term at r plus the integral from r, with
+     * ∫_R^∞ r²·exp(-s·r²) dr &lt;= exp(-s·R²)·(R/(2s) + 1/(4s²·R)), times the
+     * margin of the computed terms.
+     */
+    private double tail(double r, double dr) {
+        double r2 = r * r;
+        double b = bound(r2);
+        double integral = 0.0;
+        for (int i = 0; i < alpha.length; i++) {
+            for (int j = 0; j < alpha.length; j++) {
+                double s = alpha[i] + alpha[j];
+                integral += absCN[i] * absCN[j] * Math.exp(-s * r2) * (r / (2 * s) + 1 / (4 * s * s * r));
+            }
+        }
+        return margin * margin * 4 * Math.PI * (b * b * r2 * dr + integral);
+    }
+
+    /**
+     * True when the norm, of which sum is accumulated and tail bounds the
+     * rest, lies certainly on one side of every cut. The terms are not
+     * negative, so the rounded running sum never decreases; rounding adds
+     * at most each remaining term once more, and the final rounding of the
+     * sum is covered by the slack.
+     */
+    private boolean decided(double sum, double tail, double[] cuts) {
+        double lower = sum * (1 - slack);
+        double upper = (sum + 2 * tail) * (1 + slack);
+        for (double cut : cuts) {
+            if (cut >= lower && cut <= upper) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public BigDecimal norm(BigDecimal rMin, BigDecimal rMax, int steps) {
+        return overlapWith(this, rMin, rMax, steps);
+    }
+
+    /**
+     * norm() that stops as soon as the norm lies certainly below or above
+     * each of the given cuts (e.g. the partial norms at the allowed
+     * deviations of the thresholds); the bounds are checked every CHECK grid
+     * points beyond 1/sqrt(2·α_min). Returns the lower and the upper bound
+     * of the norm, both the norm itself when the grid was integrated to the
+     * end.
+     */
+    public BigDecimal[] normBounds(BigDecimal rMin, BigDecimal rMax, int steps, double[] cuts) {
+        BigDecimal dr = rMax.subtract(rMin, mc).divide(BigDecimal.valueOf(steps), mc);
+        return doubleDouble ? overlapWithDD(this, rMin, dr, steps, cuts)
+                : overlapWith(this, rMin, dr, steps, cuts);
+    }
     public ContractedBig normalize(BigDecimal rMin, BigDecimal rMax, int steps) {
-    BigDecimal currentNorm = this.norm(rMin, rMax, steps);
+    return normalize(this.norm(rMin, rMax, steps));
+}
+
+    /**
+     * Scaled to unit norm, given the norm of this contraction.
+     */
+    public ContractedBig normalize(BigDecimal currentNorm) {
     BigDecimal scale = BigDecimal.ONE.divide(BigDecimalMath.sqrt(currentNorm, mc), mc);
     List<PrimitiveBig> scaled = new ArrayList<>();
     for (PrimitiveBig p : primitives) {
         scaled.add(p.scaled(scale));
     }
-    return new ContractedBig(scaled);
+    return with(scaled);
 }
 
     
@@ -109,12 +327,12 @@ public class ContractedBig {
         }
 
         if (positive.isEmpty() || negative.isEmpty()) {
-            log.getInstance().println(Dic.getMsg("WARN_SINGLE_SIGN_GROUP"));
+            ctx.log.info("WARN_SINGLE_SIGN_GROUP");
             return this;
         }
 
-        ContractedBig phiPlus = new ContractedBig(positive);
-        ContractedBig phiMinus = new ContractedBig(negative);
+        ContractedBig phiPlus = with(positive);
+        ContractedBig phiMinus = with(negative);
 
         BigDecimal A = phiPlus.norm(rMin, rMax, steps);
         BigDecimal B = phiMinus.norm(rMin, rMax, steps);
@@ -129,7 +347,7 @@ public class ContractedBig {
         List<PrimitiveBig> result;
 
         if (discriminant.compareTo(BigDecimal.ZERO) < 0) {
-            log.getInstance().println(Dic.getMsg("WARN_PROJECTION_FAILED"));
+            ctx.log.info("WARN_PROJECTION_FAILED");
             BigDecimal s1 = BigDecimal.ONE;
             BigDecimal s2 = minimizeS2Big(positive, negative, rMin, rMax, steps, new BigDecimal("1e-6"));
             result = mergeScaled(positive, negative, s1, s2);
@@ -144,10 +362,10 @@ public class ContractedBig {
             result = mergeScaled(positive, negative, BigDecimal.ONE, s2);
         }
 
-        return PrimitiveBig.renormalizedContracted(new ContractedBig(result), rMin, rMax, steps);
+        return PrimitiveBig.renormalizedContracted(with(result), rMin, rMax, steps);
     }
 
-    private static BigDecimal minimizeS2Big(List<PrimitiveBig> positive, List<PrimitiveBig> negative,
+    private BigDecimal minimizeS2Big(List<PrimitiveBig> positive, List<PrimitiveBig> negative,
                                             BigDecimal rMin, BigDecimal rMax, int steps, BigDecimal tolerance) {
         BigDecimal left = new BigDecimal("-10.0", mc);
         BigDecimal right = new BigDecimal("10.0", mc);
@@ -161,8 +379,8 @@ public class ContractedBig {
         BigDecimal bestError = new BigDecimal(Double.MAX_VALUE, mc);
 
         for (int i = 0; i < 100; i++) {
-            ContractedBig c1 = new ContractedBig(mergeScaled(positive, negative, BigDecimal.ONE, x1));
-            ContractedBig c2 = new ContractedBig(mergeScaled(positive, negative, BigDecimal.ONE, x2));
+            ContractedBig c1 = with(mergeScaled(positive, negative, BigDecimal.ONE, x1));
+            ContractedBig c2 = with(mergeScaled(positive, negative, BigDecimal.ONE, x2));
 
             BigDecimal err1 = c1.norm(rMin, rMax, steps).subtract(BigDecimal.ONE, mc).abs(mc);
             BigDecimal err2 = c2.norm(rMin, rMax, steps).subtract(BigDecimal.ONE, mc).abs(mc);
@@ -185,7 +403,7 @@ public class ContractedBig {
                 break;
             }
         }
-        log.getInstance().println(Dic.getMsg("INFO_OPTIMIZED_S2", bestS2.doubleValue(), bestError.doubleValue()));
+        ctx.log.detail("INFO_OPTIMIZED_S2", bestS2.doubleValue(), bestError.doubleValue());
         return bestS2;
     }
 
@@ -199,18 +417,280 @@ public class ContractedBig {
 
     public BigDecimal overlapWith(ContractedBig other, BigDecimal rMin, BigDecimal rMax, int steps) {
         BigDecimal dr = rMax.subtract(rMin, mc).divide(BigDecimal.valueOf(steps), mc);
+        if (doubleDouble) {
+            return overlapWithDD(other, rMin, dr, steps, null)[0];
+        }
+        return overlapWith(other, rMin, dr, steps, null)[0];
+    }
+
+    /**
+     * overlapWith() on the BigDecimal kernel; with cuts (a norm) the bounds
+     * of normBounds().
+     */
+    private BigDecimal[] overlapWith(ContractedBig other, BigDecimal rMin, BigDecimal dr, int steps, double[] cuts) {
         BigDecimal sum = BigDecimal.ZERO;
+        double drd = dr.doubleValue();
+        // beyond this radius every r²·exp(-(α_i + α_j)·r²) decreases; with
+        // terms of one sign the sum cannot shrink, so the tail can be cut
+        double rTail = other == this || (singleSign && other.singleSign)
+                ? 1 / Math.sqrt(alphaMin + other.alphaMin) : Double.POSITIVE_INFINITY;
+        double tailMargin = margin * other.margin * 4 * Math.PI;
+        double[] exp = new double[cN.length];
+        BigDecimal[] expBig = new BigDecimal[cN.length];
+        double[] otherExp = new double[other.cN.length];
+        BigDecimal[] otherExpBig = new BigDecimal[other.cN.length];
         for (int i = 0; i <= steps; i++) {
             BigDecimal r = rMin.add(dr.multiply(BigDecimal.valueOf(i), mc), mc);
-            BigDecimal val1 = this.phi(r);
-            BigDecimal val2 = other.phi(r);
+            BigDecimal r2 = r.multiply(r, mc);
+            double rd = r.doubleValue();
+            if (rd > rTail && sum.signum() != 0) {
+                double r2d = rd * rd;
+                double tail = bound(r2d) * other.bound(r2d) * tailMargin * r2d * drd;
+                if (tail < Math.abs(sum.doubleValue()) * negligible) {
+                    break; // no remaining term can change the sum
+                }
+            }
+            if (cuts != null && rd > rTail && i % CHECK == 0) {
+                double tail = tail(rd, drd);
+                if (decided(sum.doubleValue(), tail, cuts)) {
+                    return new BigDecimal[]{sum, new BigDecimal(sum.doubleValue() + 2 * tail, mc)};
+                }
+            }
+            exps(r2, exp, expBig);
+            BigDecimal val1 = this.phi2(exp, expBig);
+            if (other != this) {
+                other.exps(r2, otherExp, otherExpBig);
+            }
+            BigDecimal val2 = other == this ? val1 : other.phi2(otherExp, otherExpBig);
             BigDecimal term = val1.multiply(val2, mc)
-                                  .multiply(FOUR_PI, mc)
+                                  .multiply(fourPi, mc)
                                   .multiply(r.pow(2, mc), mc)
                                   .multiply(dr, mc);
             sum = sum.add(term, mc);
         }
-        return sum;
+        return new BigDecimal[]{sum, sum};
+    }
+
+    /**
+     * overlapWith() on the double-double kernel; with cuts (a norm) the
+     * bounds of normBounds().
+     */
+    private BigDecimal[] overlapWithDD(ContractedBig other, BigDecimal rMin, BigDecimal dr, int steps, double[] cuts) {
+        double drd = dr.doubleValue();
+        double rTail = other == this || (singleSign && other.singleSign)
+                ? 1 / Math.sqrt(alphaMin + other.alphaMin) : Double.POSITIVE_INFINITY;
+        double tailMargin = margin * other.margin * 4 * Math.PI;
+        double[] exp = new double[cN.length];
+        double[] otherExp = new double[other.cN.length];
+        DoubleDouble r0 = new DoubleDouble(rMin);
+        DoubleDouble step = new DoubleDouble(dr);
+        DoubleDouble weight = new DoubleDouble(fourPi).multiply(step);
+        DoubleDouble r = new DoubleDouble();
+        DoubleDouble r2 = new DoubleDouble();
+        DoubleDouble val1 = new DoubleDouble();
+        DoubleDouble val2 = new DoubleDouble();
+        DoubleDouble term = new DoubleDouble();
+        DoubleDouble sum = new DoubleDouble();
+        for (int i = 0; i <= steps; i++) {
+            r.set(step).multiply(i).add(r0);
+            r2.set(r).multiply(r);
+            double rd = r.hi;
+            if (rd > rTail && sum.signum() != 0) {
+                double r2d = rd * rd;
+                double tail = bound(r2d) * other.bound(r2d) * tailMargin * r2d * drd;
+                if (tail < Math.abs(sum.hi) * negligible) {
+                    break; // no remaining term can change the sum
+                }
+            }
+            if (cuts != null && rd > rTail && i % CHECK == 0) {
+                double tail = tail(rd, drd);
+                if (decided(sum.hi, tail, cuts)) {
+                    return new BigDecimal[]{sum.toBigDecimal(mc), new BigDecimal(sum.hi + 2 * tail, mc)};
+                }
+            }
+            exps(r2, term, exp);
+            phi2(exp, val1, term);
+            if (other != this) {
+                other.exps(r2, term, otherExp);
+                other.phi2(otherExp, val2, term);
+            } else {
+                val2.set(val1);
+            }
+            sum.add(val1.multiply(val2).multiply(r2).multiply(weight));
+        }
+        BigDecimal result = sum.toBigDecimal(mc);
+        return new BigDecimal[]{result, result};
+    }
+
+    /**
+     * Norms of contractions over the same exponents (the columns of a
+     * general contraction) in one pass over the grid: exp(-α·r²) is
+     * evaluated once per point for all of them. Each value equals norm() of
+     * the column.
+     */
+    public static BigDecimal[] norms(List<ContractedBig> columns, BigDecimal rMin, BigDecimal rMax, int steps) {
+        return normBounds(columns, rMin, rMax, steps, null)[0];
+    }
+
+    /**
+     * norms() in which a column stops as soon as its norm lies certainly
+     * below or above each of its cuts, as normBounds() of one contraction.
+     * Returns the lower and the upper bounds of the norms; with cuts null
+     * (or a column's cuts null) the norms are integrated to the end.
+     */
+    public static BigDecimal[][] normBounds(List<ContractedBig> columns, BigDecimal rMin, BigDecimal rMax, int steps,
+            double[][] cuts) {
+        int k = columns.size();
+        ContractedBig first = columns.get(0);
+        MathContext mc = first.mc;
+        BigDecimal dr = rMax.subtract(rMin, mc).divide(BigDecimal.valueOf(steps), mc);
+        if (first.doubleDouble) {
+            return normsDD(columns, rMin, dr, steps, cuts);
+        }
+        double drd = dr.doubleValue();
+        double rTail = 1 / Math.sqrt(first.alphaMin + first.alphaMin);
+        BigDecimal[] sums = new BigDecimal[k];
+        Arrays.fill(sums, BigDecimal.ZERO);
+        BigDecimal[] uppers = new BigDecimal[k];
+        boolean[] done = new boolean[k];
+        int open = k;
+        double[] exp = new double[first.cN.length];
+        BigDecimal[] expBig = new BigDecimal[first.cN.length];
+        for (int i = 0; i <= steps && open > 0; i++) {
+            BigDecimal r = rMin.add(dr.multiply(BigDecimal.valueOf(i), mc), mc);
+            BigDecimal r2 = r.multiply(r, mc);
+            double rd = r.doubleValue();
+            boolean evaluated = false;
+            for (int c = 0; c < k; c++) {
+                if (done[c]) {
+                    continue;
+                }
+                ContractedBig column = columns.get(c);
+                if (rd > rTail && sums[c].signum() != 0) {
+                    double r2d = rd * rd;
+                    double b = column.bound(r2d);
+                    double tailMargin = column.margin * column.margin * 4 * Math.PI;
+                    double tail = b * b * tailMargin * r2d * drd;
+                    if (tail < Math.abs(sums[c].doubleValue()) * column.negligible) {
+                        done[c] = true; // no remaining term can change the sum
+                        open--;
+                        continue;
+                    }
+                }
+                if (cuts != null && cuts[c] != null && rd > rTail && i % CHECK == 0) {
+                    double tail = column.tail(rd, drd);
+                    if (column.decided(sums[c].doubleValue(), tail, cuts[c])) {
+                        uppers[c] = new BigDecimal(sums[c].doubleValue() + 2 * tail, mc);
+                        done[c] = true;
+                        open--;
+                        continue;
+                    }
+                }
+                if (!evaluated) {
+                    first.exps(r2, exp, expBig);
+                    evaluated = true;
+                }
+                BigDecimal val = column.phi2(exp, expBig);
+                BigDecimal term = val.multiply(val, mc)
+                                     .multiply(column.fourPi, mc)
+                                     .multiply(r.pow(2, mc), mc)
+                                     .multiply(dr, mc);
+                sums[c] = sums[c].add(term, mc);
+            }
+        }
+        for (int c = 0; c < k; c++) {
+            if (uppers[c] == null) {
+                uppers[c] = sums[c];
+            }
+        }
+        return new BigDecimal[][]{sums, uppers};
+    }
+
+    /**
+     * normBounds() of the columns on the double-double kernel.
+     */
+    private static BigDecimal[][] normsDD(List<ContractedBig> columns, BigDecimal rMin, BigDecimal dr, int steps,
+            double[][] cuts) {
+        int k = columns.size();
+        ContractedBig first = columns.get(0);
+        double drd = dr.doubleValue();
+        double rTail = 1 / Math.sqrt(first.alphaMin + first.alphaMin);
+        DoubleDouble[] sums = new DoubleDouble[k];
+        for (int c = 0; c < k; c++) {
+            sums[c] = new DoubleDouble();
+        }
+        BigDecimal[] uppers = new BigDecimal[k];
+        boolean[] done = new boolean[k];
+        int open = k;
+        double[] exp = new double[first.cN.length];
+        DoubleDouble r0 = new DoubleDouble(rMin);
+        DoubleDouble step = new DoubleDouble(dr);
+        DoubleDouble weight = new DoubleDouble(first.fourPi).multiply(step);
+        DoubleDouble r = new DoubleDouble();
+        DoubleDouble r2 = new DoubleDouble();
+        DoubleDouble val = new DoubleDouble();
+        DoubleDouble term = new DoubleDouble();
+        for (int i = 0; i <= steps && open > 0; i++) {
+            r.set(step).multiply(i).add(r0);
+            r2.set(r).multiply(r);
+            double rd = r.hi;
+            boolean evaluated = false;
+            for (int c = 0; c < k; c++) {
+                if (done[c]) {
+                    continue;
+                }
+                ContractedBig column = columns.get(c);
+                if (rd > rTail && sums[c].signum() != 0) {
+                    double r2d = rd * rd;
+                    double b = column.bound(r2d);
+                    double tailMargin = column.margin * column.margin * 4 * Math.PI;
+                    double tail = b * b * tailMargin * r2d * drd;
+                    if (tail < Math.abs(sums[c].hi) * column.negligible) {
+                        done[c] = true; // no remaining term can change the sum
+                        open--;
+                        continue;
+                    }
+                }
+                if (cuts != null && cuts[c] != null && rd > rTail && i % CHECK == 0) {
+                    double tail = column.tail(rd, drd);
+                    if (column.decided(sums[c].hi, tail, cuts[c])) {
+                        uppers[c] = new BigDecimal(sums[c].hi + 2 * tail, first.mc);
+                        done[c] = true;
+                        open--;
+                        continue;
+                    }
+                }
+                if (!evaluated) {
+                    first.exps(r2, term, exp);
+                    evaluated = true;
+                }
+                column.phi2(exp, val, term);
+                sums[c].add(val.multiply(val).multiply(r2).multiply(weight));
+            }
+        }
+        BigDecimal[] norms = new BigDecimal[k];
+        for (int c = 0; c < k; c++) {
+            norms[c] = sums[c].toBigDecimal(first.mc);
+            if (uppers[c] == null) {
+                uppers[c] = norms[c];
+            }
+        }
+        return new BigDecimal[][]{norms, uppers};
+    }
+
+    /**
+     * True when both contractions have the same exponents in the same order.
+     */
+    public boolean sameExponents(ContractedBig other) {
+        if (other.primitives.size() != primitives.size()) {
+            return false;
+        }
+        for (int i = 0; i < primitives.size(); i++) {
+            if (primitives.get(i).alpha.compareTo(other.primitives.get(i).alpha) != 0) {
+                return false;
+            }
+        }
+        return true;
     }
 
     public List<PrimitiveBig> getPrimitivesInOriginalOrder(List<BigDecimal> alphaOrder) {
@@ -0,0 +1,144 @@
+/*
+ * BSD 3-Clause License
+ * 
+ * Copyright (c) 2025, M. Macernis
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation 
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors 
+ *    may be used to endorse or promote products derived from this software 
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE 
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER 
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, 
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE 
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package basissculpt.lib;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+
+/**
+ * BasisSculpt - Sculpting Gaussian Basis Sets via Norm Control
+ *
+ * Mutable double-double number hi + lo, |lo| &lt;= ulp(hi)/2, about 32
+ * significant digits (106 bits). The kernels keep one instance per running
+ * value and update it in place, so the grid loops allocate nothing. The
+ * operations are the error-free transformations of Dekker and Knuth, the
+ * products by Math.fma; the relative error of each is below 2^-104.
+ *
+ * @author M. Macernis
+ * @version 2025.4.v1
+ */
+public final class DoubleDouble {
+
+    public double hi;
+    public double lo;
+
+    public DoubleDouble() {
+    }
+
+    public DoubleDouble(BigDecimal value) {
+        set(value);
+    }
+
+    public DoubleDouble set(double hi, double lo) {
+        this.hi = hi;
+        this.lo = lo;
+        return this;
+    }
+
+    public DoubleDouble set(DoubleDouble other) {
+        return set(other.hi, other.lo);
+    }
+
+    /**
+     * The value rounded to 106 bits: hi is the nearest double, lo the
+     * nearest double of the rest.
+     */
+    public DoubleDouble set(BigDecimal value) {
+        hi = value.doubleValue();
+        lo = Double.isFinite(hi) ? value.subtract(new BigDecimal(hi)).doubleValue() : 0.0;
+        return this;
+    }
+
+    /**
+     * this += b (hi, lo).
+     */
+    public DoubleDouble add(double bHi, double bLo) {
+        double s = hi + bHi;
+        double v = s - hi;
+        double e = (hi - (s - v)) + (bHi - v);
+        double t = lo + bLo;
+        double w = t - lo;
+        double f = (lo - (t - w)) + (bLo - w);
+        e += t;
+        double h = s + e;
+        e = e - (h - s);
+        e += f;
+        hi = h + e;
+        lo = e - (hi - h);
+        return this;
+    }
+
+    public DoubleDouble add(DoubleDouble b) {
+        return add(b.hi, b.lo);
+    }
+
+    /**
+     * this *= b (hi, lo).
+     */
+    public DoubleDouble multiply(double bHi, double bLo) {
+        double p = hi * bHi;
+        double e = Math.fma(hi, bHi, -p) + (hi * bLo + lo * bHi);
+        hi = p + e;
+        lo = e - (hi - p);
+        return this;
+    }
+
+    public DoubleDouble multiply(DoubleDouble b) {
+        return multiply(b.hi, b.lo);
+    }
+
+    /**
+     * this *= b, b a double.
+     */
+    public DoubleDouble multiply(double b) {
+        double p = hi * b;
+        double e = Math.fma(hi, b, -p) + lo * b;
+        hi = p + e;
+        lo = e - (hi - p);
+        return this;
+    }
+
+    public double doubleValue() {
+        return hi + lo;
+    }
+
+    public int signum() {
+        return hi != 0 ? (int) Math.signum(hi) : (int) Math.signum(lo);
+    }
+
+    /**
+     * The exact sum hi + lo rounded to the given precision.
+     */
+    public BigDecimal toBigDecimal(MathContext mc) {
+        return new BigDecimal(hi).add(new BigDecimal(lo)).round(mc);
+    }
+}
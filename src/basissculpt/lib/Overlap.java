@@ -0,0 +1,302 @@
+/*
+ * BSD 3-Clause License
+ * 
+ * Copyright (c) 2025, M. Macernis
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation 
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors 
+ *    may be used to endorse or promote products derived from this software 
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE 
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER 
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, 
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE 
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package basissculpt.lib;
+
+import ch.obermuhlner.math.big.BigDecimalMath;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * BasisSculpt - Sculpting Gaussian Basis Sets via Norm Control
+ *
+ * Overlap (Gram) matrix of the normalized radial primitives of a block,
+ * S_ij = (2·sqrt(α_i·α_j) / (α_i + α_j))^(3/2), so that the norm of the
+ * contraction is Σ c_i·c_j·S_ij. The matrix of a joined block is assembled
+ * from the matrices of its parts; only the cross terms between the parts are
+ * evaluated.
+ *
+ * @author M. Macernis
+ * @version 2025.4.v1
+ */
+public final class Overlap {
+
+    private static final BigDecimal TWO = new BigDecimal("2");
+
+    public final List<PrimitiveBig> primitives;
+    private final BigDecimal[][] s;
+    private final MathContext mc;
+
+    private Overlap(List<PrimitiveBig> primitives, BigDecimal[][] s, MathContext mc) {
+        this.primitives = primitives;
+        this.s = s;
+        this.mc = mc;
+    }
+
+    public static Overlap of(List<PrimitiveBig> primitives, MathContext mc) {
+        int n = primitives.size();
+        BigDecimal[][] s = new BigDecimal[n][n];
+        for (int i = 0; i < n; i++) {
+            s[i][i] = BigDecimal.ONE;
+            for (int j = 0; j < i; j++) {
+                s[i][j] = s[j][i] = overlap(primitives.get(i), primitives.get(j), mc);
+            }
+        }
+        return new Overlap(List.copyOf(primitives), s, mc);
+    }
+
+    /**
+     * Block matrix of the given parts, in order. The diagonal blocks are
+     * taken from the parts; a cross block between parts with the same
+     * exponents (e.g. the S and P subblocks of an SP shell) is the matrix of
+     * the part itself, any other cross block is computed.
+     */
+    public static Overlap join(List<Overlap> parts, MathContext mc) {
+        List<PrimitiveBig> all = new ArrayList<>();
+        int[] offset = new int[parts.size()];
+        for (int a = 0; a < parts.size(); a++) {
+            offset[a] = all.size();
+            all.addAll(parts.get(a).primitives);
+        }
+        BigDecimal[][] s = new BigDecimal[all.size()][all.size()];
+        for (int a = 0; a < parts.size(); a++) {
+            Overlap pa = parts.get(a);
+            for (int i = 0; i < pa.size(); i++) {
+                System.arraycopy(pa.s[i], 0, s[offset[a] + i], offset[a], pa.size());
+            }
+            for (int b = a + 1; b < parts.size(); b++) {
+                Overlap pb = parts.get(b);
+                boolean same = pa.sameExponents(pb);
+                for (int i = 0; i < pa.size(); i++) {
+                    for (int j = 0; j < pb.size(); j++) {
+                        BigDecimal v = same ? pa.s[i][j]
+                                : overlap(pa.primitives.get(i), pb.primitives.get(j), mc);
+                        s[offset[a] + i][offset[b] + j] = v;
+                        s[offset[b] + j][offset[a] + i] = v;
+                    }
+                }
+            }
+        }
+        return new Overlap(List.copyOf(all), s, mc);
+    }
+
+    /**
+     * Same exponents with other coefficients, e.g. the normalized primitives
+     * of the block; the matrix is shared.
+     */
+    public Overlap with(List<PrimitiveBig> other) {
+        if (other.size() != size()) {
+            throw new IllegalArgumentException("Primitive count differs: " + other.size() + " != " + size());
+        }
+        return new Overlap(List.copyOf(other), s, mc);
+    }
+
+    public static BigDecimal overlap(PrimitiveBig a, PrimitiveBig b, MathContext mc) {
+        BigDecimal sum = a.alpha.add(b.alpha, mc);
+        BigDecimal x = TWO.multiply(BigDecimalMath.sqrt(a.alpha.multiply(b.alpha, mc), mc), mc)
+                .divide(sum, mc);
+        return x.multiply(BigDecimalMath.sqrt(x, mc), mc);
+    }
+
+    public MathContext mc() {
+        return mc;
+    }
+
+    public int size() {
+        return primitives.size();
+    }
+
+    public BigDecimal get(int i, int j) {
+        return s[i][j];
+    }
+
+    /**
+     * P_i = Σ_j c_j·S_ij; the norm is Σ c_i·P_i.
+     */
+    public BigDecimal[] projections() {
+        int n = size();
+        BigDecimal[] p = new BigDecimal[n];
+        for (int i = 0; i < n; i++) {
+            BigDecimal sum = BigDecimal.ZERO;
+            for (int j = 0; j < n; j++) {
+                sum = sum.add(primitives.get(j).c.multiply(s[i][j], mc), mc);
+            }
+            p[i] = sum;
+        }
+        return p;
+    }
+
+    public BigDecimal norm(BigDecimal[] projections) {
+        BigDecimal norm = BigDecimal.ZERO;
+        for (int i = 0; i < size(); i++) {
+            norm = norm.add(primitives.get(i).c.multiply(projections[i], mc), mc);
+        }
+        return norm;
+    }
+
+    /**
+     * Norm of the contraction of the kept primitives only.
+     */
+    public BigDecimal norm(boolean[] keep) {
+        BigDecimal norm = BigDecimal.ZERO;
+        for (int i = 0; i < size(); i++) {
+            if (!keep[i]) {
+                continue;
+            }
+            BigDecimal ci = primitives.get(i).c;
+            for (int j = 0; j < size(); j++) {
+                if (keep[j]) {
+                    norm = norm.add(ci.multiply(primitives.get(j).c, mc).multiply(s[i][j], mc), mc);
+                }
+            }
+        }
+        return norm;
+    }
+
+    /**
+     * Norm lost by dropping primitive i (rank one downdate):
+     * 2·c_i·P_i - c_i²·S_ii.
+     */
+    public BigDecimal removed(int i, BigDecimal[] projections) {
+        BigDecimal c = primitives.get(i).c;
+        return TWO.multiply(c, mc).multiply(projections[i], mc)
+                .subtract(c.multiply(c, mc).multiply(s[i][i], mc), mc);
+    }
+
+    /**
+     * 1 - F of dropping primitive i and keeping the other coefficients as
+     * they are, F = (c_K·P_K)² / (N·N_K) being the overlap of the normalized
+     * original and reduced contractions squared. With c_K·P_K = N - c_i·P_i
+     * and N_K = N - removed(i) the difference is c_i²·(N·S_ii - P_i²) /
+     * (N·N_K), so no cancellation against 1. One when the reduced
+     * contraction vanishes.
+     */
+    public BigDecimal infidelity(int i, BigDecimal[] projections, BigDecimal norm) {
+        BigDecimal c = primitives.get(i).c;
+        BigDecimal reduced = norm.subtract(removed(i, projections), mc);
+        if (norm.signum() <= 0 || reduced.signum() <= 0) {
+            return BigDecimal.ONE;
+        }
+        BigDecimal numerator = c.multiply(c, mc)
+                .multiply(norm.multiply(s[i][i], mc).subtract(projections[i].multiply(projections[i], mc), mc), mc);
+        return numerator.divide(norm.multiply(reduced, mc), mc).max(BigDecimal.ZERO);
+    }
+
+    /**
+     * Least-squares refit of the kept primitives: the coefficients x of the
+     * kept rows closest to the full contraction solve S_KK·x = P_K, by a
+     * Cholesky factorization of S_KK. Dropped rows get zero. Returns null
+     * when S_KK is not positive definite at this precision (e.g. repeated
+     * exponents).
+     */
+    public BigDecimal[] refit(boolean[] keep, BigDecimal[] projections) {
+        int[] rows = new int[size()];
+        int n = 0;
+        for (int i = 0; i < size(); i++) {
+            if (keep[i]) {
+                rows[n++] = i;
+            }
+        }
+
+        // S_KK = L·L^T
+        BigDecimal[][] l = new BigDecimal[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j <= i; j++) {
+                BigDecimal sum = s[rows[i]][rows[j]];
+                for (int k = 0; k < j; k++) {
+                    sum = sum.subtract(l[i][k].multiply(l[j][k], mc), mc);
+                }
+                if (i == j) {
+                    if (sum.signum() <= 0) {
+                        return null;
+                    }
+                    l[i][i] = BigDecimalMath.sqrt(sum, mc);
+                } else {
+                    l[i][j] = sum.divide(l[j][j], mc);
+                }
+            }
+        }
+
+        // L·y = P_K, then L^T·x = y
+        BigDecimal[] y = new BigDecimal[n];
+        for (int i = 0; i < n; i++) {
+            BigDecimal sum = projections[rows[i]];
+            for (int k = 0; k < i; k++) {
+                sum = sum.subtract(l[i][k].multiply(y[k], mc), mc);
+            }
+            y[i] = sum.divide(l[i][i], mc);
+        }
+        BigDecimal[] x = new BigDecimal[size()];
+        Arrays.fill(x, BigDecimal.ZERO);
+        for (int i = n - 1; i >= 0; i--) {
+            BigDecimal sum = y[i];
+            for (int k = i + 1; k < n; k++) {
+                sum = sum.subtract(l[k][i].multiply(x[rows[k]], mc), mc);
+            }
+            x[rows[i]] = sum.divide(l[i][i], mc);
+        }
+        return x;
+    }
+
+    /**
+     * Σ a_i·b_i, e.g. the overlap x·P of refitted coefficients with the full
+     * contraction.
+     */
+    public BigDecimal dot(BigDecimal[] a, BigDecimal[] b) {
+        BigDecimal sum = BigDecimal.ZERO;
+        for (int i = 0; i < a.length; i++) {
+            sum = sum.add(a[i].multiply(b[i], mc), mc);
+        }
+        return sum;
+    }
+
+    /**
+     * Same primitives at another precision; the matrix is recomputed.
+     */
+    public Overlap at(MathContext other) {
+        return of(primitives, other);
+    }
+
+    private boolean sameExponents(Overlap other) {
+        if (other.size() != size()) {
+            return false;
+        }
+        for (int i = 0; i < size(); i++) {
+            if (primitives.get(i).alpha.compareTo(other.primitives.get(i).alpha) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -31,7 +31,6 @@
  */
 package basissculpt.lib;
 
-import basissculpt.etc.Settings;
 import ch.obermuhlner.math.big.BigDecimalMath;
 import java.math.BigDecimal;
 import java.math.MathContext;
@@ -47,25 +46,33 @@ import java.util.stream.Collectors;
  */
 public class PrimitiveBig {
 
-    private static final MathContext mc = Settings.getInstance().getMC();
-    private static final BigDecimal PI = new BigDecimal(Math.PI, mc);
-    private static final BigDecimal TWO = new BigDecimal("2", mc);
-    private static final BigDecimal THREE = new BigDecimal("3", mc);
-    private static final BigDecimal FOUR = new BigDecimal("4", mc);
+    private static final BigDecimal TWO = new BigDecimal("2");
+    private static final BigDecimal THREE = new BigDecimal("3");
+    private static final BigDecimal FOUR = new BigDecimal("4");
     private static final BigDecimal ONE = BigDecimal.ONE;
     private static final BigDecimal EPS = new BigDecimal("1e-10");
 
-    public BigDecimal alpha;
-    public BigDecimal c;
-    public BigDecimal N;
+    public final BigDecimal alpha;
+    public final BigDecimal c;
+    public final BigDecimal N;
+    private final MathContext mc;
 
-    public PrimitiveBig(BigDecimal alpha, BigDecimal c) {
+    public PrimitiveBig(BigDecimal alpha, BigDecimal c, MathContext mc) {
         this.alpha = alpha;
         this.c = c;
-        BigDecimal ratio = TWO.multiply(alpha, mc).divide(PI, mc);
+        this.mc = mc;
+        BigDecimal pi = new BigDecimal(Math.PI, mc);
+        BigDecimal ratio = TWO.multiply(alpha, mc).divide(pi, mc);
         this.N = BigDecimalMath.pow(ratio, THREE.divide(FOUR, mc), mc); // (2*alpha/pi)^(3/4)
     }
 
+    private PrimitiveBig(BigDecimal alpha, BigDecimal c, BigDecimal N, MathContext mc) {
+        this.alpha = alpha;
+        this.c = c;
+        this.N = N;
+        this.mc = mc;
+    }
+
     public BigDecimal value(BigDecimal r) {
         BigDecimal r2 = r.multiply(r, mc);
         BigDecimal exponent = alpha.multiply(r2, mc).negate();
@@ -74,24 +81,26 @@ public class PrimitiveBig {
     }
 
     public PrimitiveBig scaled(BigDecimal scale) {
-        return new PrimitiveBig(alpha, c.multiply(scale, mc));
+        return new PrimitiveBig(alpha, c.multiply(scale, mc), N, mc);
     }
 
     public PrimitiveBig rescaled(BigDecimal newC) {
-        return new PrimitiveBig(alpha, newC);
+        return new PrimitiveBig(alpha, newC, N, mc);
     }
 
     public static List<PrimitiveBig> scaleAll(List<PrimitiveBig> list, BigDecimal factor) {
         return list.stream().map(p -> p.scaled(factor)).collect(Collectors.toList());
     }
 
-    public static List<PrimitiveBig> renormalize(List<PrimitiveBig> list, BigDecimal targetNorm, Function<List<PrimitiveBig>, BigDecimal> normFunction) {
+    public static List<PrimitiveBig> renormalize(List<PrimitiveBig> list, BigDecimal targetNorm,
+            Function<List<PrimitiveBig>, BigDecimal> normFunction, MathContext mc) {
         BigDecimal currentNorm = normFunction.apply(list);
         BigDecimal scale = targetNorm.divide(BigDecimalMath.sqrt(currentNorm, mc), mc);
         return scaleAll(list, scale);
     }
 
-    public static List<PrimitiveBig> renormalizeIfNeeded(List<PrimitiveBig> list, BigDecimal targetNorm, Function<List<PrimitiveBig>, BigDecimal> normFunction) {
+    public static List<PrimitiveBig> renormalizeIfNeeded(List<PrimitiveBig> list, BigDecimal targetNorm,
+            Function<List<PrimitiveBig>, BigDecimal> normFunction, MathContext mc) {
         BigDecimal currentNorm = normFunction.apply(list);
         if (currentNorm.subtract(targetNorm, mc).abs(mc).compareTo(EPS) > 0) {
             BigDecimal scale = targetNorm.divide(BigDecimalMath.sqrt(currentNorm, mc), mc);
@@ -102,9 +111,9 @@ public class PrimitiveBig {
     }
 
     public static ContractedBig renormalizedContracted(ContractedBig original, BigDecimal rMin, BigDecimal rMax, int steps) {
-        Function<List<PrimitiveBig>, BigDecimal> normFunc = list -> new ContractedBig(list).norm(rMin, rMax, steps);
-        List<PrimitiveBig> renorm = renormalizeIfNeeded(original.primitives, ONE, normFunc);
-        return new ContractedBig(renorm);
+        Function<List<PrimitiveBig>, BigDecimal> normFunc = list -> original.with(list).norm(rMin, rMax, steps);
+        List<PrimitiveBig> renorm = renormalizeIfNeeded(original.primitives, ONE, normFunc, original.mc());
+        return original.with(renorm);
     }
 
 }
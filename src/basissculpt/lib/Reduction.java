@@ -0,0 +1,253 @@
+/*
+ * BSD 3-Clause License
+ * 
+ * Copyright (c) 2025, M. Macernis
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation 
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors 
+ *    may be used to endorse or promote products derived from this software 
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE 
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER 
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, 
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE 
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package basissculpt.lib;
+
+import ch.obermuhlner.math.big.BigDecimalMath;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * BasisSculpt - Sculpting Gaussian Basis Sets via Norm Control
+ *
+ * Removal decision for one shell at a given threshold. Primitives are tried
+ * from the smallest single removal loss upwards and dropped as long as the
+ * norm of the remaining contraction stays within the allowed relative
+ * deviation. All components of a shell (S and P of an SP shell) share the
+ * rows, so a row is dropped only when every component allows it.
+ *
+ * With refit the kept coefficients are refitted by least squares to the
+ * full contraction (Overlap.refit, at GUARD extra digits) and the deviation
+ * of a component is 1 - F, F = (x·P) / (c·S·c) being the fidelity of the
+ * refitted function; every row is tried, as a large single removal loss may
+ * still be recovered by the refit.
+ *
+ * @author M. Macernis
+ * @version 2025.4.v1
+ */
+public final class Reduction {
+
+    private static final int GUARD = 20;
+
+    public final boolean[] keep;
+    public final BigDecimal deviation; // largest relative deviation of the components
+    public final BigDecimal fidelity; // smallest normalized overlap with the full contraction
+    public final BigDecimal infidelity; // 1 - fidelity, taken at GUARD extra digits
+    public final boolean refit;
+
+    private Reduction(boolean[] keep, BigDecimal deviation, BigDecimal fidelity, BigDecimal infidelity, boolean refit) {
+        this.keep = keep;
+        this.deviation = deviation;
+        this.fidelity = fidelity;
+        this.infidelity = infidelity;
+        this.refit = refit;
+    }
+
+    public static Reduction of(List<Overlap> components, BigDecimal allowed, boolean refit, MathContext mc) {
+        int n = components.isEmpty() ? 0 : components.get(0).size();
+        boolean[] keep = new boolean[n];
+        Arrays.fill(keep, true);
+        for (Overlap o : components) {
+            if (o.size() != n) {
+                // rows do not match, nothing is removed
+                return new Reduction(keep, BigDecimal.ZERO, BigDecimal.ONE, BigDecimal.ZERO, false);
+            }
+        }
+        List<Overlap> fits = new ArrayList<>();
+        if (refit) {
+            MathContext wide = guard(mc);
+            for (Overlap o : components) {
+                fits.add(o.at(wide));
+            }
+        }
+
+        BigDecimal[] full = new BigDecimal[components.size()];
+        BigDecimal[] single = new BigDecimal[n];
+        Arrays.fill(single, BigDecimal.ZERO);
+        for (int k = 0; k < components.size(); k++) {
+            Overlap o = components.get(k);
+            BigDecimal[] projections = o.projections();
+            full[k] = o.norm(projections);
+            for (int i = 0; i < n; i++) {
+                single[i] = single[i].max(relative(o.removed(i, projections), full[k], mc));
+            }
+        }
+
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            order.add(i);
+        }
+        order.sort(Comparator.comparing(i -> single[i]));
+
+        BigDecimal deviation = BigDecimal.ZERO;
+        int kept = n;
+        for (int i : order) {
+            if (kept <= 1 || !refit && single[i].compareTo(allowed) > 0) {
+                break;
+            }
+            keep[i] = false;
+            BigDecimal worst = BigDecimal.ZERO;
+            for (int k = 0; k < components.size() && worst.compareTo(allowed) <= 0; k++) {
+                if (refit) {
+                    BigDecimal f = refitFidelity(fits.get(k), keep);
+                    worst = f == null ? BigDecimal.ONE : worst.max(BigDecimal.ONE.subtract(f, mc).abs());
+                } else {
+                    BigDecimal lost = full[k].subtract(components.get(k).norm(keep), mc);
+                    worst = worst.max(relative(lost, full[k], mc));
+                }
+            }
+            if (worst.compareTo(allowed) <= 0) {
+                deviation = worst;
+                kept--;
+            } else {
+                keep[i] = true;
+            }
+        }
+
+        if (kept == n) {
+            // nothing removed: exact, not the rounding noise of the guard digits
+            return new Reduction(keep, BigDecimal.ZERO, BigDecimal.ONE, BigDecimal.ZERO, refit);
+        }
+        BigDecimal fidelity = BigDecimal.ONE;
+        for (int k = 0; k < components.size(); k++) {
+            Overlap wide = refit ? fits.get(k) : components.get(k).at(guard(mc));
+            BigDecimal f = refit ? refitFidelity(wide, keep) : fidelity(wide, keep);
+            if (f != null) {
+                fidelity = fidelity.min(f);
+            }
+        }
+        BigDecimal infidelity = BigDecimal.ONE.subtract(fidelity, guard(mc)).max(BigDecimal.ZERO);
+        return new Reduction(keep, deviation, fidelity, infidelity, refit);
+    }
+
+    static MathContext guard(MathContext mc) {
+        return new MathContext(mc.getPrecision() + GUARD, mc.getRoundingMode());
+    }
+
+    /**
+     * F = (x·P) / (c·S·c) of the least-squares refit, null when it fails.
+     */
+    private static BigDecimal refitFidelity(Overlap o, boolean[] keep) {
+        BigDecimal[] p = o.projections();
+        BigDecimal[] x = o.refit(keep, p);
+        BigDecimal full = o.norm(p);
+        if (x == null || full.signum() == 0) {
+            return null;
+        }
+        return o.dot(x, p).divide(full, o.mc());
+    }
+
+    /**
+     * F = (c_K·P_K)² / ((c·S·c)·(c_K·S_KK·c_K)) of the kept coefficients as
+     * they are.
+     */
+    private static BigDecimal fidelity(Overlap o, boolean[] keep) {
+        MathContext mc = o.mc();
+        BigDecimal[] p = o.projections();
+        BigDecimal overlap = BigDecimal.ZERO;
+        for (int i = 0; i < keep.length; i++) {
+            if (keep[i]) {
+                overlap = overlap.add(o.primitives.get(i).c.multiply(p[i], mc), mc);
+            }
+        }
+        BigDecimal denominator = o.norm(p).multiply(o.norm(keep), mc);
+        if (denominator.signum() == 0) {
+            return null;
+        }
+        return overlap.multiply(overlap, mc).divide(denominator, mc);
+    }
+
+    private static BigDecimal relative(BigDecimal lost, BigDecimal full, MathContext mc) {
+        if (full.signum() == 0) {
+            return BigDecimal.ZERO;
+        }
+        return lost.divide(full, mc).abs();
+    }
+
+    /**
+     * The kept primitives of one component, rescaled so that the reduced
+     * contraction keeps the norm of the given primitives (the same exponents
+     * as the overlap matrix, e.g. the normalized block). With refit the kept
+     * coefficients are the least-squares refit, rescaled the same way.
+     */
+    public List<PrimitiveBig> apply(Overlap overlap, List<PrimitiveBig> primitives, MathContext mc) {
+        if (primitives.size() != keep.length) {
+            return primitives;
+        }
+        if (refit) {
+            List<PrimitiveBig> refitted = refitted(primitives, mc);
+            if (refitted != null) {
+                return refitted;
+            }
+        }
+        Overlap o = overlap.with(primitives);
+        BigDecimal target = o.norm(o.projections());
+        BigDecimal scale = BigDecimalMath.sqrt(target.divide(o.norm(keep), mc), mc);
+        List<PrimitiveBig> reduced = new ArrayList<>();
+        for (int i = 0; i < keep.length; i++) {
+            if (keep[i]) {
+                reduced.add(primitives.get(i).scaled(scale));
+            }
+        }
+        return reduced;
+    }
+
+    private List<PrimitiveBig> refitted(List<PrimitiveBig> primitives, MathContext mc) {
+        Overlap o = Overlap.of(primitives, guard(mc));
+        BigDecimal[] p = o.projections();
+        BigDecimal[] x = o.refit(keep, p);
+        if (x == null) {
+            return null;
+        }
+        BigDecimal scale = BigDecimalMath.sqrt(o.norm(p).divide(o.dot(x, p), o.mc()), o.mc());
+        List<PrimitiveBig> reduced = new ArrayList<>();
+        for (int i = 0; i < keep.length; i++) {
+            if (keep[i]) {
+                reduced.add(primitives.get(i).rescaled(x[i].multiply(scale, mc)));
+            }
+        }
+        return reduced;
+    }
+
+    public int kept() {
+        int count = 0;
+        for (boolean k : keep) {
+            if (k) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
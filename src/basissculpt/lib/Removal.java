@@ -0,0 +1,85 @@
+/*
+ * BSD 3-Clause License
+ * 
+ * Copyright (c) 2025, M. Macernis
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation 
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors 
+ *    may be used to endorse or promote products derived from this software 
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE 
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER 
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, 
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE 
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package basissculpt.lib;
+
+import java.math.BigDecimal;
+
+/**
+ * BasisSculpt - Sculpting Gaussian Basis Sets via Norm Control
+ *
+ * Effect of removing one primitive from a block: the partial norm, the norm
+ * loss and the |c·N| contribution, both in percent, and the fidelity F of
+ * the normalized reduced contraction to the original one with 1 - F (from
+ * the overlap matrix, see Overlap.infidelity), at the math precision of the
+ * run; F and 1 - F are null unless --fidelity or --results reports them.
+ * A partial norm whose integration stopped once the removal decision was
+ * certain (--early-stop) is known by its bounds only: it lies within
+ * [norm, normMax] and the loss within [lossMin, loss]; both are null for an
+ * exact value.
+ *
+ * @author M. Macernis
+ * @version 2025.4.v1
+ */
+public final class Removal {
+
+    public final int index;           // 1-based, as printed
+    public final BigDecimal alpha;
+    public final BigDecimal norm;
+    public final BigDecimal loss;
+    public final BigDecimal contribution;
+    public final BigDecimal fidelity;
+    public final BigDecimal infidelity;  // 1 - F, not rounded against 1
+    public final BigDecimal normMax;     // upper bound of the norm, null when exact
+    public final BigDecimal lossMin;     // lower bound of the loss, null when exact
+
+    public Removal(int index, BigDecimal alpha, BigDecimal norm, BigDecimal loss, BigDecimal contribution,
+            BigDecimal fidelity, BigDecimal infidelity) {
+        this(index, alpha, norm, loss, contribution, fidelity, infidelity, null, null);
+    }
+
+    public Removal(int index, BigDecimal alpha, BigDecimal norm, BigDecimal loss, BigDecimal contribution,
+            BigDecimal fidelity, BigDecimal infidelity, BigDecimal normMax, BigDecimal lossMin) {
+        this.index = index;
+        this.alpha = alpha;
+        this.norm = norm;
+        this.loss = loss;
+        this.contribution = contribution;
+        this.fidelity = fidelity;
+        this.infidelity = infidelity;
+        this.normMax = normMax;
+        this.lossMin = lossMin;
+    }
+
+    public boolean isExact() {
+        return normMax == null;
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * BSD 3-Clause License
+ * 
+ * Copyright (c) 2025, M. Macernis
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation 
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors 
+ *    may be used to endorse or promote products derived from this software 
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE 
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER 
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, 
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE 
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package basissculpt.lib;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * BasisSculpt - Sculpting Gaussian Basis Sets via Norm Control
+ *
+ * Bounds on the single removal loss of every primitive of a block, from its
+ * coefficients and full norm only (--screen). Dropping primitive i loses
+ * 2·c_i·P_i - c_i², P_i = Σ_j c_j·S_ij. With 0 &lt; S_ij &lt;= 1 (diagonal
+ * bound) the sum lies between the terms of opposite and of the same sign
+ * as c_i; by Cauchy-Schwarz |P_i| &lt;= sqrt(N); the partial norm is not
+ * negative, so at most N is lost. A primitive whose loss interval lies
+ * outside the allowed deviation of every threshold is certainly kept, one
+ * inside it certainly removable; only the undecided ones need the exact
+ * partial norm on the radial grid.
+ *
+ * @author M. Macernis
+ * @version 2025.4.v1
+ */
+public final class Screening {
+
+    public enum Verdict {
+        KEEP, REMOVABLE, UNDECIDED
+    }
+
+    private static final double SLACK = 1e-13; // rounding of the bounds in double
+
+    public final Verdict[] verdicts;
+
+    private Screening(Verdict[] verdicts) {
+        this.verdicts = verdicts;
+    }
+
+    /**
+     * Verdicts for the primitives of a block of full norm N against the
+     * allowed relative deviations (one per threshold). KEEP and REMOVABLE
+     * refer to the strictest one; a primitive kept at one threshold and
+     * removable at another is decided as well.
+     */
+    public static Screening of(List<PrimitiveBig> basis, BigDecimal norm, List<BigDecimal> allowed) {
+        int n = basis.size();
+        Verdict[] verdicts = new Verdict[n];
+        double full = norm.doubleValue();
+        if (!(full > 0) || allowed.isEmpty()) {
+            Arrays.fill(verdicts, Verdict.UNDECIDED);
+            return new Screening(verdicts);
+        }
+        double[] c = new double[n];
+        for (int i = 0; i < n; i++) {
+            c[i] = basis.get(i).c.doubleValue();
+        }
+        double root = Math.sqrt(full);
+        for (int i = 0; i < n; i++) {
+            double a = Math.abs(c[i]);
+            double same = 0;
+            double opposite = 0;
+            for (int j = 0; j < n; j++) {
+                if (j != i) {
+                    if (c[i] * c[j] > 0) {
+                        same += Math.abs(c[j]);
+                    } else {
+                        opposite += Math.abs(c[j]);
+                    }
+                }
+            }
+            double slack = SLACK * (a * a + 2 * a * (same + opposite + root));
+            double hi = Math.min(Math.min(a * a + 2 * a * same, 2 * a * root - a * a), full) + slack;
+            double lo = Math.max(a * a - 2 * a * opposite, -2 * a * root - a * a) - slack;
+            verdicts[i] = verdict(lo / full, hi / full, allowed);
+        }
+        return new Screening(verdicts);
+    }
+
+    private static Verdict verdict(double lo, double hi, List<BigDecimal> allowed) {
+        Verdict strictest = null;
+        double tightest = Double.MAX_VALUE;
+        for (BigDecimal limit : allowed) {
+            double d = limit.doubleValue();
+            Verdict v;
+            if (lo > d || hi < -d) {
+                v = Verdict.KEEP;
+            } else if (Math.max(-lo, hi) <= d) {
+                v = Verdict.REMOVABLE;
+            } else {
+                return Verdict.UNDECIDED;
+            }
+            if (d < tightest) {
+                tightest = d;
+                strictest = v;
+            }
+        }
+        return strictest;
+    }
+
+    public boolean isDecided(int i) {
+        return verdicts[i] != Verdict.UNDECIDED;
+    }
+
+    public int count(Verdict verdict) {
+        int count = 0;
+        for (Verdict v : verdicts) {
+            if (v == verdict) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
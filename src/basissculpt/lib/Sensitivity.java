@@ -0,0 +1,165 @@
+/*
+ * BSD 3-Clause License
+ * 
+ * Copyright (c) 2025, M. Macernis
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation 
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors 
+ *    may be used to endorse or promote products derived from this software 
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE 
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER 
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, 
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE 
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package basissculpt.lib;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+
+/**
+ * BasisSculpt - Sculpting Gaussian Basis Sets via Norm Control
+ *
+ * Analytic derivatives of the norm of a contraction and of the loss of
+ * removing each primitive, with respect to every coefficient c_k and
+ * exponent α_k, in closed form from the overlap matrix. With
+ * N = Σ c_i·c_j·S_ij, P_i = Σ_j c_j·S_ij and the loss of removing i
+ * L_i = 2·c_i·P_i - c_i²·S_ii:
+ *
+ * <pre>
+ * ∂N/∂c_k   = 2·P_k                 ∂N/∂α_k   = 2·c_k·Σ_j c_j·D_kj
+ * ∂L_i/∂c_i = 2·P_i                 ∂L_i/∂α_i = 2·c_i·Σ_j c_j·D_ij
+ * ∂L_i/∂c_k = 2·c_i·S_ik            ∂L_i/∂α_k = 2·c_i·c_k·D_ki       (k ≠ i)
+ * </pre>
+ *
+ * where D_kj = ∂S_kj/∂α_k = S_kj·3/4·(α_j - α_k)/(α_k·(α_k + α_j)). The
+ * coefficients are those of normalized primitives, as in the input, so a
+ * derivative by α keeps the primitive normalized. The losses are in percent
+ * of the norm, as in the report: ∂(100·L_i/N) = 100·(∂L_i - L_i/N·∂N)/N.
+ * Evaluated with guard digits and rounded to the precision of the run.
+ *
+ * @author M. Macernis
+ * @version 2025.4.v1
+ */
+public final class Sensitivity {
+
+    private static final BigDecimal TWO = new BigDecimal("2");
+    private static final BigDecimal THREE_QUARTERS = new BigDecimal("0.75");
+    private static final BigDecimal HUNDRED = new BigDecimal("100");
+
+    public final BigDecimal norm;
+    public final BigDecimal[] loss;          // percent of the norm lost by removing primitive i
+    public final BigDecimal[] dNormDc;       // ∂N/∂c_k
+    public final BigDecimal[] dNormDalpha;   // ∂N/∂α_k
+    public final BigDecimal[][] dLossDc;     // [i][k] ∂loss_i/∂c_k, percent
+    public final BigDecimal[][] dLossDalpha; // [i][k] ∂loss_i/∂α_k, percent
+
+    private Sensitivity(BigDecimal norm, BigDecimal[] loss, BigDecimal[] dNormDc, BigDecimal[] dNormDalpha,
+            BigDecimal[][] dLossDc, BigDecimal[][] dLossDalpha) {
+        this.norm = norm;
+        this.loss = loss;
+        this.dNormDc = dNormDc;
+        this.dNormDalpha = dNormDalpha;
+        this.dLossDc = dLossDc;
+        this.dLossDalpha = dLossDalpha;
+    }
+
+    /**
+     * Derivatives for the primitives of the overlap, at its precision.
+     */
+    public static Sensitivity of(Overlap overlap) {
+        MathContext out = overlap.mc();
+        MathContext mc = Reduction.guard(out);
+        Overlap o = overlap.at(mc);
+        int n = o.size();
+        BigDecimal[] c = new BigDecimal[n];
+        BigDecimal[] alpha = new BigDecimal[n];
+        for (int i = 0; i < n; i++) {
+            c[i] = o.primitives.get(i).c;
+            alpha[i] = o.primitives.get(i).alpha;
+        }
+
+        // D_kj = ∂S_kj/∂α_k
+        BigDecimal[][] d = new BigDecimal[n][n];
+        for (int k = 0; k < n; k++) {
+            for (int j = 0; j < n; j++) {
+                d[k][j] = j == k ? BigDecimal.ZERO
+                        : o.get(k, j).multiply(THREE_QUARTERS, mc)
+                                .multiply(alpha[j].subtract(alpha[k], mc), mc)
+                                .divide(alpha[k].multiply(alpha[k].add(alpha[j], mc), mc), mc);
+            }
+        }
+
+        BigDecimal[] p = o.projections();
+        BigDecimal norm = o.norm(p);
+        BigDecimal[] dNdc = new BigDecimal[n];
+        BigDecimal[] dNda = new BigDecimal[n];
+        for (int k = 0; k < n; k++) {
+            dNdc[k] = TWO.multiply(p[k], mc);
+            dNda[k] = TWO.multiply(c[k], mc).multiply(weighted(c, d[k], mc), mc);
+        }
+
+        BigDecimal[] loss = new BigDecimal[n];
+        BigDecimal[][] dLdc = new BigDecimal[n][n];
+        BigDecimal[][] dLda = new BigDecimal[n][n];
+        boolean zero = norm.signum() == 0;
+        for (int i = 0; i < n; i++) {
+            BigDecimal lost = o.removed(i, p);
+            BigDecimal share = zero ? BigDecimal.ZERO : lost.divide(norm, mc);
+            loss[i] = share.multiply(HUNDRED, mc).round(out);
+            BigDecimal twoC = TWO.multiply(c[i], mc);
+            for (int k = 0; k < n; k++) {
+                BigDecimal byC = k == i ? dNdc[i] : twoC.multiply(o.get(i, k), mc);
+                BigDecimal byA = k == i ? twoC.multiply(weighted(c, d[i], mc), mc)
+                        : twoC.multiply(c[k], mc).multiply(d[k][i], mc);
+                dLdc[i][k] = percent(byC, share, dNdc[k], norm, zero, mc).round(out);
+                dLda[i][k] = percent(byA, share, dNda[k], norm, zero, mc).round(out);
+            }
+        }
+        for (int k = 0; k < n; k++) {
+            dNdc[k] = dNdc[k].round(out);
+            dNda[k] = dNda[k].round(out);
+        }
+        return new Sensitivity(norm.round(out), loss, dNdc, dNda, dLdc, dLda);
+    }
+
+    public int size() {
+        return loss.length;
+    }
+
+    private static BigDecimal weighted(BigDecimal[] c, BigDecimal[] row, MathContext mc) {
+        BigDecimal sum = BigDecimal.ZERO;
+        for (int j = 0; j < c.length; j++) {
+            sum = sum.add(c[j].multiply(row[j], mc), mc);
+        }
+        return sum;
+    }
+
+    /**
+     * 100·(∂L - L/N·∂N)/N
+     */
+    private static BigDecimal percent(BigDecimal dLost, BigDecimal share, BigDecimal dNorm, BigDecimal norm,
+            boolean zero, MathContext mc) {
+        if (zero) {
+            return BigDecimal.ZERO;
+        }
+        return dLost.subtract(share.multiply(dNorm, mc), mc).divide(norm, mc).multiply(HUNDRED, mc);
+    }
+}
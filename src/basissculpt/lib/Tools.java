@@ -31,7 +31,6 @@
  */
 package basissculpt.lib;
 
-import basissculpt.etc.Settings;
 import ch.obermuhlner.math.big.BigDecimalMath;
 import java.math.BigDecimal;
 import java.math.MathContext;
@@ -44,8 +43,9 @@ import java.util.Comparator;
  * @version 2025.4.v1
  */
 public class Tools {
- private static final MathContext mc = Settings.getInstance().getMC();
+
     public static BigDecimal suggestRmax(ContractedBig contracted) {
+        MathContext mc = contracted.mc();
         BigDecimal minAlpha = contracted.primitives.stream()
                 .map(p -> p.alpha)
                 .min(Comparator.naturalOrder())
@@ -54,7 +54,7 @@ public class Tools {
         return new BigDecimal("3.0", mc).max(new BigDecimal("3.0", mc).divide(sqrtMinAlpha, mc));
     }
 
-     public static int suggestSteps(BigDecimal rMax) {
+     public static int suggestSteps(BigDecimal rMax, MathContext mc) {
         return new BigDecimal("1250", mc).multiply(rMax, mc).max(new BigDecimal("1000", mc)).intValue();
     }
 }
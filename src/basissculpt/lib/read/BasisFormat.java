@@ -0,0 +1,70 @@
+/*
+ * BSD 3-Clause License
+ * 
+ * Copyright (c) 2025, M. Macernis
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation 
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors 
+ *    may be used to endorse or promote products derived from this software 
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE 
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER 
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, 
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE 
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package basissculpt.lib.read;
+
+import basissculpt.bin.LogFile;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * BasisSculpt - Sculpting Gaussian Basis Sets via Norm Control
+ *
+ * Reader of one basis set file format. The built-in formats are gbs,
+ * bse-json and nwchem; further implementations are found by
+ * java.util.ServiceLoader (META-INF/services/basissculpt.lib.read.BasisFormat)
+ * and selected with --input-format or by accepts().
+ *
+ * @author M. Macernis
+ * @version 2025.4.v1
+ */
+public interface BasisFormat {
+
+    /**
+     * Name used with --input-format, e.g. "gbs".
+     */
+    String name();
+
+    /**
+     * Whether the input looks like this format, judged from the file name
+     * (may be null) and the first characters of the content.
+     */
+    boolean accepts(String fileName, String head);
+
+    /**
+     * Reads the atom sections one by one, handing each over to the sink as
+     * soon as it is complete; the input is not held in memory as a whole.
+     *
+     * @param warnings log receiving input warnings (--verbose), or null
+     */
+    void read(BufferedReader reader, Consumer<BasisParser.AtomSection> sink, LogFile warnings) throws IOException;
+}
@@ -0,0 +1,159 @@
+/*
+ * BSD 3-Clause License
+ * 
+ * Copyright (c) 2025, M. Macernis
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation 
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors 
+ *    may be used to endorse or promote products derived from this software 
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE 
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER 
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, 
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE 
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package basissculpt.lib.read;
+
+import basissculpt.bin.LogFile;
+import basissculpt.etc.BasisSculptException;
+import basissculpt.etc.Dic;
+import java.io.*;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * BasisSculpt - Sculpting Gaussian Basis Sets via Norm Control
+ *
+ * Registry of the input formats: the built-in readers followed by those
+ * provided through ServiceLoader. Without --input-format the first format
+ * other than gbs that accepts the input is used, gbs otherwise.
+ *
+ * @author M. Macernis
+ * @version 2025.4.v1
+ */
+public final class BasisFormats {
+
+    private static final int HEAD = 4096;
+
+    private static volatile List<BasisFormat> formats;
+
+    private BasisFormats() {
+    }
+
+    public static List<BasisFormat> all() {
+        if (formats == null) {
+            List<BasisFormat> list = new ArrayList<>();
+            list.add(new GbsFormat());
+            list.add(new BseJsonFormat());
+            list.add(new NwchemFormat());
+            for (BasisFormat format : ServiceLoader.load(BasisFormat.class)) {
+                list.add(format);
+            }
+            formats = List.copyOf(list);
+        }
+        return formats;
+    }
+
+    public static BasisFormat byName(String name) {
+        List<String> names = new ArrayList<>();
+        for (BasisFormat format : all()) {
+            if (format.name().equalsIgnoreCase(name)) {
+                return format;
+            }
+            names.add(format.name());
+        }
+        throw new BasisSculptException(Dic.getMsg("ERROR_INPUT_FORMAT", name, String.join(", ", names)));
+    }
+
+    /**
+     * The named format, or the one detected from the file name and head.
+     */
+    public static BasisFormat detect(String name, String fileName, String head) {
+        if (name != null && !name.isBlank()) {
+            return byName(name.trim());
+        }
+        BasisFormat gbs = null;
+        for (BasisFormat format : all()) {
+            if (format instanceof GbsFormat) {
+                gbs = format;
+            } else if (format.accepts(fileName, head)) {
+                return format;
+            }
+        }
+        return gbs;
+    }
+
+    /**
+     * Reads the atoms of a file in the given (or detected) format, keeping
+     * only those accepted by the filter (e.g. --atom), so a large library is
+     * never held as a whole. Fails only when the file has no atoms at all.
+     *
+     * @param warnings log receiving input warnings (--verbose), or null
+     */
+    public static List<BasisParser.AtomSection> parse(File file, String format, LogFile warnings,
+            Predicate<BasisParser.AtomSection> filter) throws IOException {
+        List<BasisParser.AtomSection> result = new ArrayList<>();
+        int[] count = new int[1];
+        try (BufferedReader reader = new BufferedReader(new FileReader(file), 1 << 16)) {
+            read(reader, format, file.getName(), warnings, atom -> {
+                count[0]++;
+                if (filter.test(atom)) {
+                    result.add(atom);
+                }
+            });
+        } catch (IOException e) {
+            // e.g. a JSON syntax error: the input cannot be read
+            throw new BasisSculptException(e.getMessage() + " (" + file.getPath() + ")", e);
+        }
+        if (count[0] == 0) {
+            throw new BasisSculptException(Dic.getMsg("ERROR_INPUT_FILE_ATOMS", file.getPath()));
+        }
+        return result;
+    }
+
+    public static void read(BufferedReader reader, String format, String fileName, LogFile warnings,
+            Consumer<BasisParser.AtomSection> sink) throws IOException {
+        detect(format, fileName, head(reader)).read(reader, sink, warnings);
+    }
+
+    /**
+     * Filter of --atom: the label or element symbol (case-insensitive).
+     */
+    public static Predicate<BasisParser.AtomSection> atom(String name) {
+        if (name == null) {
+            return atom -> true;
+        }
+        String symbol = BasisLibrary.symbol(name);
+        return atom -> BasisLibrary.symbol(atom.atom).equals(symbol);
+    }
+
+    private static String head(BufferedReader reader) throws IOException {
+        char[] buf = new char[HEAD];
+        reader.mark(HEAD);
+        int n = 0;
+        int r;
+        while (n < HEAD && (r = reader.read(buf, n, HEAD - n)) > 0) {
+            n += r;
+        }
+        reader.reset();
+        return new String(buf, 0, n);
+    }
+}
@@ -0,0 +1,353 @@
+/*
+ * BSD 3-Clause License
+ * 
+ * Copyright (c) 2025, M. Macernis
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation 
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors 
+ *    may be used to endorse or promote products derived from this software 
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE 
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER 
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, 
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE 
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package basissculpt.lib.read;
+
+import basissculpt.etc.Dic;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * BasisSculpt - Sculpting Gaussian Basis Sets via Norm Control
+ *
+ * Pre-parsed binary form of a basis library. Layout (big-endian):
+ *
+ * <pre>
+ * int    magic "BSLB", int version, long table offset
+ * record per atom: int block count, then per block:
+ *        type, header (short length + UTF-8), int rows, then per row:
+ *        the line (short length + UTF-8), short token count,
+ *        per token: short start, short end (chars of the line)
+ * table  int atom count, per atom: long record offset, name (short length + UTF-8)
+ * </pre>
+ *
+ * The lines and numbers are kept exactly as in the text (no rounding
+ * through double); a block read back carries its split tokens, so the
+ * analysis takes exponents and coefficients from them directly instead of
+ * tokenizing text again. The table follows the records, so a library is
+ * written while the text is read, one atom at a time. The records are
+ * memory-mapped in windows of at most 2 GB, each holding whole atoms; an
+ * atom is decoded only when it is accessed, so a single element of a large
+ * library is read without touching the rest.
+ *
+ * @author M. Macernis
+ * @version 2025.4.v1
+ */
+public class BasisLibrary extends AbstractList<BasisParser.AtomSection> {
+
+    private static final int MAGIC = 0x42534C42; // "BSLB"
+    private static final int VERSION = 2;
+    private static final int HEADER = 16;
+    private static final long WINDOW = Integer.MAX_VALUE;
+
+    private final ByteBuffer[] windows;
+    private final int[] window;       // window of each atom
+    private final int[] positions;    // record offset of each atom within its window
+    private final String[] names;
+    private Map<String, Integer> index;
+
+    private BasisLibrary(ByteBuffer[] windows, int[] window, int[] positions, String[] names) {
+        this.windows = windows;
+        this.window = window;
+        this.positions = positions;
+        this.names = names;
+    }
+
+    public static boolean isLibrary(File file) {
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            return file.length() >= 12 && in.readInt() == MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    public static BasisLibrary open(File file) throws IOException {
+        return open(file, WINDOW);
+    }
+
+    /**
+     * @param size largest window mapped at once
+     */
+    static BasisLibrary open(File file, long size) throws IOException {
+        long tableOffset;
+        long[] offsets;
+        String[] names;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16))) {
+            if (file.length() < HEADER || in.readInt() != MAGIC) {
+                throw new IOException(Dic.getMsg("ERROR_LIBRARY_FORMAT", file.getPath()));
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException(Dic.getMsg("ERROR_LIBRARY_VERSION", file.getPath(), version, VERSION));
+            }
+            tableOffset = in.readLong();
+            if (tableOffset < HEADER || tableOffset > file.length() - 4) {
+                throw new IOException(Dic.getMsg("ERROR_LIBRARY_FORMAT", file.getPath()));
+            }
+            in.skipNBytes(tableOffset - HEADER);
+            int count = in.readInt();
+            offsets = new long[count];
+            names = new String[count];
+            for (int i = 0; i < count; i++) {
+                offsets[i] = in.readLong();
+                names[i] = readString(in);
+            }
+        }
+
+        // whole atoms per window; the records follow each other in atom order
+        int count = offsets.length;
+        int[] window = new int[count];
+        int[] positions = new int[count];
+        List<long[]> ranges = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            long end = i + 1 < count ? offsets[i + 1] : tableOffset;
+            long[] last = ranges.isEmpty() ? null : ranges.get(ranges.size() - 1);
+            if (last == null || end - last[0] > size) {
+                if (end - offsets[i] > size) {
+                    throw new IOException(Dic.getMsg("ERROR_LIBRARY_ATOM", file.getPath(), names[i]));
+                }
+                last = new long[]{offsets[i], end};
+                ranges.add(last);
+            }
+            last[1] = end;
+            window[i] = ranges.size() - 1;
+            positions[i] = (int) (offsets[i] - last[0]);
+        }
+        ByteBuffer[] windows = new ByteBuffer[ranges.size()];
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            for (int w = 0; w < windows.length; w++) {
+                long[] range = ranges.get(w);
+                MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, range[0], range[1] - range[0]);
+                windows[w] = data;
+            }
+        }
+        return new BasisLibrary(windows, window, positions, names);
+    }
+
+    public static void write(List<BasisParser.AtomSection> atoms, File file) throws IOException {
+        try (Builder library = new Builder(file)) {
+            for (BasisParser.AtomSection atom : atoms) {
+                library.add(atom);
+            }
+        }
+    }
+
+    /**
+     * Writes a library atom by atom, e.g. as a text library is read; the
+     * table is written on close.
+     */
+    public static final class Builder implements Closeable {
+
+        private final FileChannel channel;
+        private final DataOutputStream out;
+        private final List<Long> offsets = new ArrayList<>();
+        private final List<String> names = new ArrayList<>();
+        private long position = HEADER;
+
+        public Builder(File file) throws IOException {
+            this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            this.out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(0L); // table offset, set on close
+        }
+
+        public void add(BasisParser.AtomSection atom) throws IOException {
+            ByteArrayOutputStream record = new ByteArrayOutputStream();
+            DataOutputStream rec = new DataOutputStream(record);
+            rec.writeInt(atom.blocks.size());
+            for (BasisParser.Block block : atom.blocks) {
+                writeString(rec, block.type);
+                writeString(rec, block.header);
+                rec.writeInt(block.lines.size());
+                for (int r = 0; r < block.lines.size(); r++) {
+                    String line = block.lines.get(r);
+                    writeString(rec, line);
+                    int[] bounds = bounds(line);
+                    rec.writeShort(bounds.length / 2);
+                    for (int b : bounds) {
+                        rec.writeShort(b);
+                    }
+                }
+            }
+            rec.flush();
+            offsets.add(position);
+            names.add(atom.atom);
+            record.writeTo(out);
+            position += record.size();
+        }
+
+        public int size() {
+            return offsets.size();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try (channel) {
+                out.writeInt(offsets.size());
+                for (int i = 0; i < offsets.size(); i++) {
+                    out.writeLong(offsets.get(i));
+                    writeString(out, names.get(i));
+                }
+                out.flush();
+                ByteBuffer table = ByteBuffer.allocate(8).putLong(0, position);
+                channel.write(table, 8);
+            }
+        }
+    }
+
+    /**
+     * Start and end of every token of a line, split at white space as
+     * BasisParser.tokens does.
+     */
+    static int[] bounds(String line) {
+        List<Integer> bounds = new ArrayList<>();
+        int i = 0;
+        while (i < line.length()) {
+            while (i < line.length() && space(line.charAt(i))) {
+                i++;
+            }
+            if (i == line.length()) {
+                break;
+            }
+            int start = i;
+            while (i < line.length() && !space(line.charAt(i))) {
+                i++;
+            }
+            bounds.add(start);
+            bounds.add(i);
+        }
+        return bounds.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static boolean space(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == 0x0B || c == '\f' || c == '\r'; // \s of a regex
+    }
+
+    @Override
+    public BasisParser.AtomSection get(int i) {
+        ByteBuffer buf = windows[window[i]].duplicate();
+        buf.position(positions[i]);
+        BasisParser.AtomSection atom = new BasisParser.AtomSection(names[i]);
+        int blocks = buf.getInt();
+        for (int b = 0; b < blocks; b++) {
+            BasisParser.Block block = new BasisParser.Block(readString(buf), readString(buf), new ArrayList<>());
+            int rows = buf.getInt();
+            for (int r = 0; r < rows; r++) {
+                String line = readString(buf);
+                String[] tokens = new String[Short.toUnsignedInt(buf.getShort())];
+                for (int t = 0; t < tokens.length; t++) {
+                    int start = Short.toUnsignedInt(buf.getShort());
+                    int end = Short.toUnsignedInt(buf.getShort());
+                    tokens[t] = line.substring(start, end);
+                }
+                block.lines.add(line);
+                block.tokens.add(tokens);
+            }
+            atom.blocks.add(block);
+        }
+        return atom;
+    }
+
+    @Override
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * Returns the atom with the given label or element symbol (first token
+     * of the label, case-insensitive), or null when it is not present.
+     */
+    public BasisParser.AtomSection find(String name) {
+        if (index == null) {
+            Map<String, Integer> map = new HashMap<>();
+            for (int i = 0; i < names.length; i++) {
+                map.putIfAbsent(symbol(names[i]), i);
+            }
+            index = map;
+        }
+        Integer i = index.get(symbol(name));
+        return i == null ? null : get(i);
+    }
+
+    /**
+     * Selects a single atom by label or element symbol. A binary library
+     * answers from its name table; parsed text is scanned.
+     */
+    public static List<BasisParser.AtomSection> select(List<BasisParser.AtomSection> atoms, String name) {
+        BasisParser.AtomSection found = null;
+        if (atoms instanceof BasisLibrary library) {
+            found = library.find(name);
+        } else {
+            for (BasisParser.AtomSection atom : atoms) {
+                if (symbol(atom.atom).equals(symbol(name))) {
+                    found = atom;
+                    break;
+                }
+            }
+        }
+        return found == null ? List.of() : List.of(found);
+    }
+
+    static String symbol(String label) {
+        String[] parts = label.trim().split("\\s+");
+        return parts[0].toUpperCase(Locale.ROOT);
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) {
+            throw new UTFDataFormatException(s.substring(0, 40) + "...");
+        }
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readUnsignedShort()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static String readString(ByteBuffer buf) {
+        int length = Short.toUnsignedInt(buf.getShort());
+        byte[] bytes = new byte[length];
+        buf.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
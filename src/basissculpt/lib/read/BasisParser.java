@@ -32,10 +32,14 @@
 package basissculpt.lib.read;
 
 import basissculpt.bin.LogFile;
-import basissculpt.etc.ArgsGet;
+import basissculpt.etc.BasisSculptException;
 import basissculpt.etc.Dic;
+import basissculpt.lib.PrimitiveBig;
 import java.io.*;
+import java.math.BigDecimal;
+import java.math.MathContext;
 import java.util.*;
+import java.util.function.Consumer;
 
 /**
  * BasisSculpt - Sculpting Gaussian Basis Sets via Norm Control
@@ -50,11 +54,17 @@ public class BasisParser {
         public final String type;         // e.g. "S" or "SP"
         public final String header;       // e.g. "2 1.00"
         public final List<String> lines;  // other lines
+        public final List<String[]> tokens; // split lines of a binary library, null for text
 
         public Block(String type, String header) {
+            this(type, header, null);
+        }
+
+        public Block(String type, String header, List<String[]> tokens) {
             this.type = type;
             this.header = header;
             this.lines = new ArrayList<>();
+            this.tokens = tokens;
         }
     }
 
@@ -68,95 +78,168 @@ public class BasisParser {
         }
     }
 
-    public static List<AtomSection> parse(File file) throws IOException {
-        List<AtomSection> result = new ArrayList<>();
+    /**
+     * @param warnings log receiving non-GBS input warnings (--verbose), or null
+     */
+    public static List<AtomSection> parse(File file, LogFile warnings) throws IOException {
+        List<AtomSection> result;
 
         try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String line;
-            AtomSection currentAtom = null;
-            Block currentBlock = null;
-            boolean endblock = true;
-            int linenum =0;
-
-            while ((line = reader.readLine()) != null) {
-                linenum++;
-                line = line.trim();
-                if (line.isEmpty()) {
-                    continue;
-                }
+            result = read(reader, warnings);
+        }
 
-                if (line.startsWith("!")) {
-                    continue; // comment at the begining 
-                }
+        if (result.isEmpty()) {
+            throw new BasisSculptException(Dic.getMsg("ERROR_INPUT_FILE_ATOMS", file.getPath()));
+        }
 
-                //if (line.startsWith("-")) {
-                //    currentAtom = new AtomSection(line.substring(1).trim());
-                // "-" used by gbs standart but in input is without it.
-                // Updated:
-                if (line.startsWith("-") || (endblock && Character.isLetter(line.charAt(0)))) {
-                    String atomName = line.startsWith("-") ? line.substring(1).trim() : line.trim();
-                    currentAtom = new AtomSection(atomName);
-                    endblock = false;
-
-                    if (ArgsGet.getInstance().isKey("verbose")) {
-                        if (!line.startsWith("-")) {
-                            LogFile.getInstance().println(Dic.getMsg("WARN_NON_GBS_INPUT"));
-                            LogFile.getInstance().println("Line "+linenum + "> " + line);
-                        }
-                    }
-                    result.add(currentAtom);
-                    continue;
-                }
+        return result;
+    }
 
-                if (line.equals("****")) {
-                    currentBlock = null;
-                    endblock = true;
-                    continue;
+    /**
+     * Reads all atom sections from the given reader. Unlike {@link #parse}
+     * an input without atoms yields an empty list.
+     */
+    public static List<AtomSection> read(BufferedReader reader, LogFile warnings) throws IOException {
+        List<AtomSection> result = new ArrayList<>();
+        read(reader, warnings, result::add);
+        return result;
+    }
+
+    /**
+     * Reads the atom sections one by one, handing each over to the sink as
+     * soon as it is complete (at the next atom or at the end of the input).
+     */
+    public static void read(BufferedReader reader, LogFile warnings, Consumer<AtomSection> sink) throws IOException {
+        String line;
+        AtomSection currentAtom = null;
+        Block currentBlock = null;
+        boolean endblock = true;
+        int linenum =0;
+
+        while ((line = reader.readLine()) != null) {
+            linenum++;
+            line = line.trim();
+            if (line.isEmpty()) {
+                continue;
+            }
+
+            if (line.startsWith("!")) {
+                continue; // comment at the begining 
+            }
+
+            //if (line.startsWith("-")) {
+            //    currentAtom = new AtomSection(line.substring(1).trim());
+            // "-" used by gbs standart but in input is without it.
+            // Updated:
+            if (line.startsWith("-") || (endblock && Character.isLetter(line.charAt(0)))) {
+                String atomName = line.startsWith("-") ? line.substring(1).trim() : line.trim();
+                if (currentAtom != null) {
+                    sink.accept(currentAtom);
                 }
+                currentAtom = new AtomSection(atomName);
+                endblock = false;
 
-                if (Character.isLetter(line.charAt(0))) {
-                    // Starts new block
-                    String[] parts = line.split("\\s+");
-                    currentBlock = new Block(parts[0], line.substring(parts[0].length()).trim());
-                    if (currentAtom != null) {
-                        currentAtom.blocks.add(currentBlock);
+                if (warnings != null) {
+                    if (!line.startsWith("-")) {
+                        warnings.println(Dic.getMsg("WARN_NON_GBS_INPUT"));
+                        warnings.println("Line "+linenum + "> " + line);
                     }
-                    continue;
                 }
+                continue;
+            }
 
-                if (currentBlock != null) {
-                    currentBlock.lines.add(line);
+            if (line.equals("****")) {
+                currentBlock = null;
+                endblock = true;
+                continue;
+            }
+
+            if (Character.isLetter(line.charAt(0))) {
+                // Starts new block
+                String[] parts = line.split("\\s+");
+                currentBlock = new Block(parts[0], line.substring(parts[0].length()).trim());
+                if (currentAtom != null) {
+                    currentAtom.blocks.add(currentBlock);
                 }
+                continue;
             }
+
+            if (currentBlock != null) {
+                currentBlock.lines.add(line);
+            }
+        }
+        if (currentAtom != null) {
+            sink.accept(currentAtom);
         }
+    }
 
-        if (result.isEmpty()) {
-            String msg = Dic.getMsg("ERROR_INPUT_FILE_ATOMS", file.getPath());
-            System.out.println(msg);
-            System.exit(0);
+    /**
+     * Number of coefficient columns of a block: one per letter of an SP/SPD
+     * type, otherwise the columns of its first row (several for a generally
+     * contracted shell).
+     */
+    public static int columns(Block block) {
+        if (block.type.length() > 1) {
+            return block.type.length();
         }
+        for (int i = 0; i < block.lines.size(); i++) {
+            String[] parts = tokens(block, i);
+            if (parts.length >= 2) {
+                return parts.length - 1;
+            }
+        }
+        return 1;
+    }
 
-        return result;
+    /**
+     * Tokens of a row: as stored by a binary library, otherwise split here.
+     */
+    public static String[] tokens(Block block, int row) {
+        return block.tokens != null ? block.tokens.get(row) : block.lines.get(row).trim().split("\\s+");
     }
 
-    // Subblock splitting, e. g. SP into S and P
+    /**
+     * Primitives of one column of a block read from a binary library, the
+     * exponents and coefficients taken from the stored tokens at the math
+     * precision of the run: the rows the text analysis would use (for one
+     * column every row with a coefficient, except # comments; for several
+     * only complete rows, see expandBlock).
+     */
+    public static List<PrimitiveBig> primitives(Block block, int column, MathContext mc) {
+        int columns = columns(block);
+        List<PrimitiveBig> primitives = new ArrayList<>();
+        for (int i = 0; i < block.lines.size(); i++) {
+            String[] parts = tokens(block, i);
+            boolean used = columns == 1 ? parts.length >= 2 : parts.length == columns + 1;
+            if (used && !parts[0].startsWith("#")) {
+                BigDecimal alpha = new BigDecimal(parts[0].replace("D", "E"), mc);
+                BigDecimal c = new BigDecimal(parts[column + 1].replace("D", "E"), mc);
+                primitives.add(new PrimitiveBig(alpha, c, mc));
+            }
+        }
+        return primitives;
+    }
+
+    // Subblock splitting, e. g. SP into S and P, or the columns 1, 2, ... of
+    // a generally contracted shell; all of them share the exponents
     public static Map<String, List<String>> expandBlock(Block block) {
         Map<String, List<String>> expanded = new LinkedHashMap<>();
-        String[] letters = block.type.split("");
-
-        for (String l : letters) {
-            expanded.put(l, new ArrayList<>());
+        int columns = columns(block);
+        String[] keys = new String[columns];
+        for (int i = 0; i < columns; i++) {
+            keys[i] = block.type.length() > 1 ? block.type.substring(i, i + 1)
+                    : columns == 1 ? block.type : String.valueOf(i + 1);
+            expanded.put(keys[i], new ArrayList<>());
         }
 
-        for (String line : block.lines) {
-            String[] parts = line.trim().split("\\s+");
-            if (parts.length != letters.length + 1) {
+        for (int row = 0; row < block.lines.size(); row++) {
+            String[] parts = tokens(block, row);
+            if (parts.length != columns + 1) {
                 continue; // problems
             }
             String exponent = parts[0];
-            for (int i = 0; i < letters.length; i++) {
-                String l = letters[i];
-                expanded.get(l).add(exponent + " " + parts[i + 1]);
+            for (int i = 0; i < columns; i++) {
+                expanded.get(keys[i]).add(exponent + " " + parts[i + 1]);
             }
         }
 
@@ -31,16 +31,31 @@
  */
 package basissculpt.lib.read;
 
+import basissculpt.bin.Context;
 import basissculpt.bin.LogFile;
 import basissculpt.bin.Output;
 import basissculpt.bin.Report;
+import basissculpt.bin.Sweep;
 import basissculpt.etc.ArgsGet;
 import basissculpt.etc.Dic;
+import basissculpt.etc.Events;
 import basissculpt.lib.BlockAnalysis;
+import basissculpt.lib.BlockResult;
+import basissculpt.lib.Overlap;
 import basissculpt.lib.PrimitiveBig;
+import basissculpt.lib.Reduction;
+import basissculpt.lib.Sensitivity;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Future;
 
 /**
  * BasisSculpt - Sculpting Gaussian Basis Sets via Norm Control
@@ -51,155 +66,439 @@ import java.util.Map;
 public class BasisPrinter {
 
     private final List<BasisParser.AtomSection> atoms;
+    private final Context ctx;
+    private final FortranFormat line = new FortranFormat();
 
-    public BasisPrinter(List<BasisParser.AtomSection> atoms) {
+    public BasisPrinter(List<BasisParser.AtomSection> atoms, Context ctx) {
         this.atoms = atoms;
+        this.ctx = ctx;
     }
 
-    public void run() {
-        LogFile log = LogFile.getInstance();
-        Output out = Output.getInstance();
-        Report report = Report.getInstance();
-        out.println("! " + ArgsGet.getInstance().getStringNotNull("fixed-basis-name")
-                + " " + ArgsGet.getInstance().getStringNotNull("version-tag")
-        );
+    /**
+     * Analyses the atoms and writes log, report and output. Atoms taken from
+     * the checkpoint journal (--resume) are written from it and have no
+     * entries in the returned list. With --threads the atoms and their shells
+     * run on a work-stealing pool, the most expensive first (CostModel); the
+     * atoms are written in input order as they finish, the files are those of
+     * a run on one thread.
+     */
+    public List<BlockResult> run() {
+        LogFile log = ctx.log;
+        Output out = ctx.out;
+        ArgsGet args = ctx.args;
+        List<BlockResult> results = new ArrayList<>();
+        Sweep sweep = ctx.sweep;
+        if (sweep.isActive()) {
+            List<String> labels = new ArrayList<>();
+            for (Sweep.Level level : sweep.levels) {
+                labels.add(level.label);
+                if (level.report != null) {
+                    level.report.println(Dic.getMsg("INFO_SWEEP_THRESHOLD", level.label, level.deviation));
+                }
+            }
+            log.info("INFO_SWEEP", String.join(", ", labels), ctx.settings.getPrecision());
+        }
+        String header = "! " + args.getStringNotNull("fixed-basis-name")
+                + " " + args.getStringNotNull("version-tag");
+        out.println(header);
+        sweep.println(header);
+        int threads = ctx.settings.getThreads();
+        if (threads > 1) {
+            runParallel(threads, results);
+        } else {
+            int index = -1;
+            for (BasisParser.AtomSection atom : atoms) {
+                index++;
+                if (ctx.journal.replay(index, atom.atom, ctx)) {
+                    continue; // finished by an interrupted run (--resume)
+                }
+                ctx.journal.begin(ctx);
+                atom(atom, results, false);
+                ctx.journal.commit(index, atom.atom, ctx);
+            }
+        }
+
+        log.flush();
+        out.flush();
+        return results;
+    }
+
+    /**
+     * Analyses the atoms in order without the run header, the checkpoint
+     * journal or a pool, e.g. one work item of a distributed run (--queue)
+     * in a capturing context.
+     */
+    public List<BlockResult> analyseAtoms() {
+        List<BlockResult> results = new ArrayList<>();
         for (BasisParser.AtomSection atom : atoms) {
-            log.println(Dic.getMsg("INFO_SEPARATOR"));
-            report.println(Dic.getMsg("INFO_SEPARATOR"));
-            log.println("Atom: " + atom.atom);
-            report.println("Atom: " + atom.atom);
-            if (ArgsGet.getInstance().getStringNotNull("output-gbs-format").toLowerCase().contains("no")) {
-                out.println(atom.atom);
-            } else {
-                out.println("-" + atom.atom);
-            }
-            log.println(Dic.getMsg("INFO_SEPARATOR"));
-            report.println(Dic.getMsg("INFO_SEPARATOR"));
-
-            Block bAll = new Block("ALL", "joined");
-            for (BasisParser.Block block : atom.blocks) {
-                log.println("  Block type: " + block.type);
-                report.println("  Block type: " + block.type);
-                log.println("  Header: " + block.header);
-                out.println(block.type + " " + block.header);
-
-                Block b = new Block(block.type, block.header);//
-
-                if (block.type.length() == 1) {
-                    for (String line : block.lines) {
-                        log.println("    " + line);
-                        b.addLine(line);
-
-                        bAll.addLine(line);
-                    }
-                } else {
-                    Map<String, List<String>> split = BasisParser.expandBlock(block);
-                    List<List<PrimitiveBig>> pAll = new ArrayList<>();
-                    for (Map.Entry<String, List<String>> entry : split.entrySet()) {
-                        log.println("    Subblock: " + entry.getKey());
-                        b = new Block(block.type, block.header);//
-                        for (String l : entry.getValue()) {
-                            log.println("      " + l);
-                            b.addLine(l);
-
-                            bAll.addLine(l);
-                        }
-                        new BlockAnalysis(b.getBlockData()).allPartialNorms();
-                        if (ArgsGet.getInstance().isKey("normalize")) {
-                            List<PrimitiveBig> p = new BlockAnalysis(b.getBlockData()).normalizeBlock();
-                            pAll.add(p);
-
-                        }
-                    }
-                    List<PrimitiveBig> primitives = pAll.get(0);
-                    int components = pAll.size(); // pvz. SP → 2, SPD → 3
-
-                    for (int i = 0; i < primitives.size(); i++) {
-                        StringBuilder sb = new StringBuilder();
-
-                        // alfa
-                        double alphaVal = pAll.get(0).get(i).alpha.doubleValue();
-                        sb.append(String.format("%16s", String.format("%.6E", alphaVal).replace('E', 'D')));
-
-                        // all c values
-                        for (int j = 0; j < components; j++) {
-                            double cVal = pAll.get(j).get(i).c.doubleValue();
-                            sb.append(String.format("%16s", String.format("%.6E", cVal).replace('E', 'D')));
-                        }
-
-                        out.println(sb.toString());
-                    }
-
-                    continue;
+            atom(atom, results, false);
+        }
+        return results;
+    }
+
+    /**
+     * Atoms submitted to the pool by decreasing cost; each runs in a worker
+     * context whose fragments are written here, in input order.
+     */
+    private void runParallel(int threads, List<BlockResult> results) {
+        List<BasisParser.AtomSection> list = new ArrayList<>(atoms);
+        CostModel cost = new CostModel(ctx.args, ctx.settings);
+        List<Integer> order = new ArrayList<>();
+        double[] costs = new double[list.size()];
+        for (int i = 0; i < list.size(); i++) {
+            if (!ctx.journal.isJournaled(i)) {
+                order.add(i);
+                costs[i] = cost.atom(list.get(i));
+            }
+        }
+        order.sort(Comparator.comparingDouble((Integer i) -> costs[i]).reversed());
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            List<Future<Analysed>> pending = new ArrayList<>(Collections.nCopies(list.size(), null));
+            for (int i : order) {
+                BasisParser.AtomSection atom = list.get(i);
+                pending.set(i, pool.submit(() -> {
+                    BasisPrinter printer = new BasisPrinter(List.of(atom), ctx.worker());
+                    List<BlockResult> atomResults = new ArrayList<>();
+                    printer.atom(atom, atomResults, true);
+                    return new Analysed(atomResults, printer.ctx.fragments());
+                }));
+            }
+            for (int index = 0; index < list.size(); index++) {
+                BasisParser.AtomSection atom = list.get(index);
+                if (ctx.journal.replay(index, atom.atom, ctx)) {
+                    continue; // finished by an interrupted run (--resume)
                 }
-                new BlockAnalysis(b.getBlockData()).allPartialNorms();
-                if (ArgsGet.getInstance().isKey("normalize")) {
-                    List<PrimitiveBig> primitives = new BlockAnalysis(b.getBlockData()).normalizeBlock();
+                Analysed analysed = await(pending.get(index));
+                ctx.journal.begin(ctx);
+                ctx.replay(analysed.fragments());
+                results.addAll(analysed.results());
+                ctx.journal.commit(index, atom.atom, ctx);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException();
+        } catch (ExecutionException e) {
+            // the pool rethrows a copy made for this thread; the original is its cause
+            Throwable cause = e.getCause();
+            while (cause.getCause() != null && cause.getCause().getClass() == cause.getClass()) {
+                cause = cause.getCause();
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * One atom: its shells, then the joined block. With fork the shells are
+     * analysed as pool tasks in worker contexts, the most expensive first,
+     * and written here in order.
+     */
+    private void atom(BasisParser.AtomSection atom, List<BlockResult> results, boolean fork) {
+        Events.Atom event = new Events.Atom();
+        event.begin();
+        LogFile log = ctx.log;
+        Output out = ctx.out;
+        Report report = ctx.report;
+        Sweep sweep = ctx.sweep;
+        log.info("INFO_SEPARATOR");
+        report.println(Dic.getMsg("INFO_SEPARATOR"));
+        sweep.report(Dic.getMsg("INFO_SEPARATOR"));
+        log.println("Atom: " + atom.atom);
+        report.println("Atom: " + atom.atom);
+        sweep.report("Atom: " + atom.atom);
+        String atomLine = ctx.args.getStringNotNull("output-gbs-format").toLowerCase().contains("no")
+                ? atom.atom : "-" + atom.atom;
+        out.println(atomLine);
+        sweep.println(atomLine);
+        log.info("INFO_SEPARATOR");
+        report.println(Dic.getMsg("INFO_SEPARATOR"));
+
+        List<Shell> forked = fork && atom.blocks.size() > 1 ? forkShells(atom) : null;
+        Block bAll = new Block("ALL", "joined");
+        List<BlockAnalysis> parts = new ArrayList<>();
+        for (int s = 0; s < atom.blocks.size(); s++) {
+            Shell shell;
+            if (forked == null) {
+                shell = shell(atom.atom, atom.blocks.get(s));
+            } else {
+                shell = forked.get(s);
+                ctx.replay(shell.fragments());
+            }
+            parts.addAll(shell.parts());
+            shell.lines().forEach(bAll::addLine);
+            results.addAll(shell.results());
+        }
+
+        log.println(LogFile.Level.DETAIL, bAll);
+        BlockAnalysis joined = new BlockAnalysis(atom.atom, bAll.type, parts, ctx);
+        add(results, joined.allPartialNorms());
+        sensitivity(joined);
+        log.info("INFO_SEPARATOR");
+        out.println("****");
+        sweep.println("****");
+        int primitives = 0;
+        for (BasisParser.Block block : atom.blocks) {
+            primitives += block.lines.size();
+        }
+        event.finish(atom.atom, "", primitives, 0, ctx.settings);
+    }
+
+    private List<Shell> forkShells(BasisParser.AtomSection atom) {
+        CostModel cost = new CostModel(ctx.args, ctx.settings);
+        List<ForkJoinTask<Shell>> tasks = new ArrayList<>();
+        for (BasisParser.Block block : atom.blocks) {
+            tasks.add(ForkJoinTask.adapt(() -> {
+                BasisPrinter printer = new BasisPrinter(List.of(atom), ctx.worker());
+                Shell shell = printer.shell(atom.atom, block);
+                return new Shell(shell.parts(), shell.lines(), shell.results(), printer.ctx.fragments());
+            }));
+        }
+        List<ForkJoinTask<Shell>> byCost = new ArrayList<>(tasks);
+        Map<ForkJoinTask<Shell>, Double> costs = new HashMap<>();
+        for (int s = 0; s < tasks.size(); s++) {
+            costs.put(tasks.get(s), cost.block(atom.blocks.get(s)));
+        }
+        byCost.sort(Comparator.comparing(costs::get).reversed());
+        ForkJoinTask.invokeAll(byCost); // the first here, the others left to be stolen
+        List<Shell> shells = new ArrayList<>();
+        for (ForkJoinTask<Shell> task : tasks) {
+            shells.add(task.join());
+        }
+        return shells;
+    }
 
-                    for (int i = 0; i < primitives.size(); i++) {
-                        StringBuilder sb = new StringBuilder();
+    /**
+     * Analysis of one shell: the component analyses (for the joined block),
+     * the rows it adds to the joined block and its results.
+     */
+    private Shell shell(String atomLabel, BasisParser.Block block) {
+        LogFile log = ctx.log;
+        Output out = ctx.out;
+        Report report = ctx.report;
+        Sweep sweep = ctx.sweep;
+        ArgsGet args = ctx.args;
+        List<BlockAnalysis> parts = new ArrayList<>();
+        List<String> joined = new ArrayList<>();
+        List<BlockResult> results = new ArrayList<>();
 
-                        Double threshold = ArgsGet.getInstance().getDouble("output-threshold");
-                        if (threshold == null) {
-                            // α
-                            double alphaVal = primitives.get(i).alpha.doubleValue();
-                            sb.append(String.format("%16s", String.format("%.6E", alphaVal).replace('E', 'D')));
+        log.println("  Block type: " + block.type);
+        report.println("  Block type: " + block.type);
+        sweep.report("  Block type: " + block.type);
+        log.println("  Header: " + block.header);
+        out.println(block.type + " " + block.header);
 
-                            double cVal = primitives.get(i).c.doubleValue();
-                            sb.append(String.format("%16s", String.format("%.6E", cVal).replace('E', 'D')));
+        Block b = new Block(block.type, block.header);//
 
-                        } else {
-                            int decimals = Math.abs((int) Math.round(Math.log10(threshold)));
-                            // α
-                            double alphaVal = primitives.get(i).alpha.doubleValue();
-                            sb.append(formatAlwaysZeroD(alphaVal, decimals));
+        if (BasisParser.columns(block) == 1) {
+            for (String line : block.lines) {
+                log.println(LogFile.Level.DETAIL, "    " + line);
+                b.addLine(line);
 
-                            sb.append("   ");//separator
+                joined.add(line);
+            }
+        } else {
+            Map<String, List<String>> split = BasisParser.expandBlock(block);
+            List<List<PrimitiveBig>> pAll = new ArrayList<>();
+            List<BlockAnalysis> components = new ArrayList<>();
+            List<Block> columns = new ArrayList<>();
+            for (Map.Entry<String, List<String>> entry : split.entrySet()) {
+                b = new Block(block.type, block.header);//
+                for (String l : entry.getValue()) {
+                    b.addLine(l);
+                }
+                columns.add(b);
+                String name = block.type + ":" + entry.getKey();
+                components.add(block.tokens != null
+                        ? BlockAnalysis.of(atomLabel, name, BasisParser.primitives(block, components.size(), ctx.mc()), ctx)
+                        : new BlockAnalysis(atomLabel, name, b.getBlockData(), ctx));
+            }
+            // the columns share their exponents: integrated together
+            BlockAnalysis.evaluateTogether(components, args.isKey("normalize"));
 
-                            double cVal = primitives.get(i).c.doubleValue();
-                            sb.append(formatAlwaysZeroD(cVal, decimals));
+            int k = 0;
+            for (Map.Entry<String, List<String>> entry : split.entrySet()) {
+                log.println("    Subblock: " + entry.getKey());
+                b = columns.get(k);
+                for (String l : entry.getValue()) {
+                    log.println(LogFile.Level.DETAIL, "      " + l);
+                    joined.add(l);
+                }
+                BlockAnalysis part = components.get(k++);
+                parts.add(part);
+                BlockResult result = part.analyse(args.isKey("normalize"));
+                sensitivity(part);
+                if (args.isKey("normalize")) {
+                    pAll.add(result.normalized);
+                }
+                add(results, result);
+            }
+            if (!pAll.isEmpty()) {
+                writeRows(out, pAll, -1); // rows are written only with --normalize, as for one column
+            }
+            sweep(block, components, pAll, -1);
 
-                        }
+            return new Shell(parts, joined, results, null);
+        }
+        BlockAnalysis part = block.tokens != null // binary library: no text to parse
+                ? BlockAnalysis.of(atomLabel, block.type, BasisParser.primitives(block, 0, ctx.mc()), ctx)
+                : new BlockAnalysis(atomLabel, block.type, b.getBlockData(), ctx);
+        parts.add(part);
+        BlockResult result = part.analyse(args.isKey("normalize"));
+        sensitivity(part);
+        if (args.isKey("normalize")) {
+            List<PrimitiveBig> primitives = result.normalized;
 
-                        out.println(sb.toString());
-                    }
+            Double threshold = args.getDouble("output-threshold");
+            int decimals = threshold == null ? -1
+                    : Math.abs((int) Math.round(Math.log10(threshold)));
+            writeRows(out, List.of(primitives), decimals);
+            sweep(block, List.of(part), List.of(primitives), decimals);
+        } else {
+            sweep(block, List.of(part), List.of(), -1);
+        }
+        add(results, result);
+        return new Shell(parts, joined, results, null);
+    }
+
+    /**
+     * Primitive rows of one shell: α followed by the coefficient of every
+     * component. With decimals &gt;= 0 (--output-threshold) the first
+     * component is written in the 0.xxxD±xx format.
+     */
+    private void writeRows(Output target, List<List<PrimitiveBig>> columns, int decimals) {
+        List<PrimitiveBig> primitives = columns.get(0);
+        for (int i = 0; i < primitives.size(); i++) {
+            // α
+            double alphaVal = primitives.get(i).alpha.doubleValue();
+            if (decimals < 0) {
+                line.appendE(alphaVal, 6, 16);
 
+                // all c values
+                for (List<PrimitiveBig> column : columns) {
+                    double cVal = column.get(i).c.doubleValue();
+                    line.appendE(cVal, 6, 16);
                 }
+            } else {
+                line.appendZeroD(alphaVal, decimals);
+
+                line.append("   ");//separator
+
+                double cVal = primitives.get(i).c.doubleValue();
+                line.appendZeroD(cVal, decimals);
             }
 
-            log.println(bAll);
-            new BlockAnalysis(bAll.getBlockData()).allPartialNorms();
-            log.println(Dic.getMsg("INFO_SEPARATOR"));
-            out.println("****");
+            line.println(target);
         }
+    }
 
-        log.flush();
-        out.flush();
+    /**
+     * --sensitivity: derivatives of the block norm and of the loss of
+     * removing each primitive by its own coefficient and exponent, after the
+     * removal table (the full matrices are in Sensitivity).
+     */
+    private void sensitivity(BlockAnalysis analysis) {
+        if (!ctx.args.isKey("sensitivity")) {
+            return;
+        }
+        Sensitivity s = analysis.sensitivity();
+        if (s.size() <= 1) {
+            return; // no reduction possible
+        }
+        ctx.report.println(Dic.getMsg("INFO_SENSITIVITY_HEADER_REPORT"));
+        for (int i = 0; i < s.size(); i++) {
+            double alpha = analysis.overlap().primitives.get(i).alpha.doubleValue();
+            ctx.log.detail("INFO_SENSITIVITY_ENTRY", i + 1, alpha,
+                    s.dNormDc[i].doubleValue(), s.dNormDalpha[i].doubleValue(),
+                    s.dLossDc[i][i].doubleValue(), s.dLossDalpha[i][i].doubleValue());
+            ctx.report.println(Dic.getMsg("INFO_SENSITIVITY_ENTRY_REPORT", i + 1,
+                    s.dNormDc[i].doubleValue(), s.dNormDalpha[i].doubleValue(),
+                    s.dLossDc[i][i].doubleValue(), s.dLossDalpha[i][i].doubleValue()));
+        }
     }
 
     /**
-     *
-     * BasisSet values in standard format and Fortran style (0.xxxxxxD±xx).
-     * Formats the given double value ensuring the leading digit is always zero,
-     * followed by the specified number of decimals and a Fortran-style exponent
-     * ('D' notation).
-     *
-     * Example: 13.0 with 6 decimals -> 0.130000D+02
-     *
-     * @param value the numeric value to format
-     * @param decimals the number of decimal places after the dot (maximum reliable precision: 15 digits, IEEE 754 double)
-     * @return formatted string in BasisSet/Fortran 'D' exponent format
+     * Removal decision of one shell for every level of a threshold sweep,
+     * with the reduced (renormalized) shell written to the level output; its
+     * header carries the kept primitive count. With --normalize the decision,
+     * deviation and fidelity are those of the normalized coefficients, the
+     * ones written, which normalization of a mixed-sign contraction may
+     * change relative to each other.
      */
-    private static String formatAlwaysZeroD(double value, int decimals) {
-        if(decimals>15) decimals=15;
-        if (value == 0.0) {
-            return String.format("0.%0" + decimals + "dD+00", 0);
+    private void sweep(BasisParser.Block block, List<BlockAnalysis> components, List<List<PrimitiveBig>> normalized, int decimals) {
+        if (!ctx.sweep.isActive()) {
+            return;
+        }
+        List<Overlap> overlaps = new ArrayList<>();
+        for (int k = 0; k < components.size(); k++) {
+            Overlap overlap = components.get(k).overlap();
+            boolean written = k < normalized.size() && normalized.get(k).size() == overlap.size();
+            overlaps.add(written ? overlap.with(normalized.get(k)) : overlap);
         }
+        for (Sweep.Level level : ctx.sweep.levels) {
+            Reduction reduction = Reduction.of(overlaps, level.deviation, ctx.args.isKey("refit"), ctx.mc());
+            List<String> removed = new ArrayList<>();
+            for (int i = 0; i < reduction.keep.length; i++) {
+                if (!reduction.keep[i]) {
+                    removed.add("#" + (i + 1));
+                }
+            }
+            String list = removed.isEmpty() ? "-" : String.join(", ", removed);
+            ctx.log.detail("INFO_SWEEP_DECISION", level.label, list,
+                    reduction.kept(), reduction.keep.length, reduction.deviation.doubleValue(),
+                    reduction.fidelity.doubleValue(), reduction.infidelity.doubleValue());
+            if (level.report != null) {
+                level.report.println(Dic.getMsg("INFO_SWEEP_DECISION_REPORT", list,
+                        reduction.kept(), reduction.keep.length, reduction.deviation.doubleValue(),
+                        reduction.fidelity.doubleValue(), reduction.infidelity.doubleValue()));
+            }
+            if (level.out != null) {
+                level.out.println(block.type + " "
+                        + block.header.replaceFirst("^\\s*\\d+", String.valueOf(reduction.kept())));
+            }
+            if (level.out != null && !normalized.isEmpty()) {
+                List<List<PrimitiveBig>> columns = new ArrayList<>();
+                for (int k = 0; k < normalized.size(); k++) {
+                    columns.add(reduction.apply(overlaps.get(k), normalized.get(k), ctx.mc()));
+                }
+                writeRows(level.out, columns, decimals);
+            }
+        }
+    }
 
-        int exponent = (int) Math.floor(Math.log10(Math.abs(value))) + 1;
-        double mantissa = value / Math.pow(10, exponent);
+    /**
+     * Shell analysed by shell(); a forked one also carries the text its
+     * worker context wrote.
+     */
+    private record Shell(List<BlockAnalysis> parts, List<String> lines, List<BlockResult> results,
+            Map<String, String> fragments) {
+    }
 
-        return String.format("%." + decimals + "fD%+03d", mantissa, exponent);
+    /**
+     * Atom analysed on the pool: its results and the text its worker context
+     * wrote.
+     */
+    private record Analysed(List<BlockResult> results, Map<String, String> fragments) {
+    }
+
+    /**
+     * Collects the block result and streams it to the --results file.
+     */
+    private void add(List<BlockResult> results, BlockResult result) {
+        results.add(result);
+        ctx.results.write(result);
+        ctx.summary.add(result);
     }
 
 }
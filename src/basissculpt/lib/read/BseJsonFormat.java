@@ -0,0 +1,179 @@
+/*
+ * BSD 3-Clause License
+ * 
+ * Copyright (c) 2025, M. Macernis
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation 
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors 
+ *    may be used to endorse or promote products derived from this software 
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE 
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER 
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, 
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE 
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package basissculpt.lib.read;
+
+import basissculpt.bin.LogFile;
+import basissculpt.etc.Dic;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * BasisSculpt - Sculpting Gaussian Basis Sets via Norm Control
+ *
+ * Basis Set Exchange JSON ("elements" → atomic number → "electron_shells"),
+ * read with JsonReader one element at a time. A shell with several angular
+ * momenta becomes an SP/SPD block, a shell with several coefficient rows a
+ * generally contracted block; ECPs and references are skipped.
+ *
+ * @author M. Macernis
+ * @version 2025.4.v1
+ */
+public class BseJsonFormat implements BasisFormat {
+
+    private static final String SHELLS = "SPDFGHIKLMNOQRTUVWXYZ";
+
+    private static final String[] ELEMENTS = {"",
+        "H", "He", "Li", "Be", "B", "C", "N", "O", "F", "Ne",
+        "Na", "Mg", "Al", "Si", "P", "S", "Cl", "Ar", "K", "Ca",
+        "Sc", "Ti", "V", "Cr", "Mn", "Fe", "Co", "Ni", "Cu", "Zn",
+        "Ga", "Ge", "As", "Se", "Br", "Kr", "Rb", "Sr", "Y", "Zr",
+        "Nb", "Mo", "Tc", "Ru", "Rh", "Pd", "Ag", "Cd", "In", "Sn",
+        "Sb", "Te", "I", "Xe", "Cs", "Ba", "La", "Ce", "Pr", "Nd",
+        "Pm", "Sm", "Eu", "Gd", "Tb", "Dy", "Ho", "Er", "Tm", "Yb",
+        "Lu", "Hf", "Ta", "W", "Re", "Os", "Ir", "Pt", "Au", "Hg",
+        "Tl", "Pb", "Bi", "Po", "At", "Rn", "Fr", "Ra", "Ac", "Th",
+        "Pa", "U", "Np", "Pu", "Am", "Cm", "Bk", "Cf", "Es", "Fm",
+        "Md", "No", "Lr", "Rf", "Db", "Sg", "Bh", "Hs", "Mt", "Ds",
+        "Rg", "Cn", "Nh", "Fl", "Mc", "Lv", "Ts", "Og"};
+
+    @Override
+    public String name() {
+        return "bse-json";
+    }
+
+    @Override
+    public boolean accepts(String fileName, String head) {
+        if (fileName != null && fileName.toLowerCase(Locale.ROOT).endsWith(".json")) {
+            return true;
+        }
+        return head.stripLeading().startsWith("{") && head.contains("\"elements\"");
+    }
+
+    @Override
+    public void read(BufferedReader reader, Consumer<BasisParser.AtomSection> sink, LogFile warnings) throws IOException {
+        JsonReader json = new JsonReader(reader);
+        json.beginObject();
+        while (json.hasNext()) {
+            if (!json.nextName().equals("elements")) {
+                json.skipValue();
+                continue;
+            }
+            json.beginObject();
+            while (json.hasNext()) {
+                String key = json.nextName();
+                BasisParser.AtomSection atom = new BasisParser.AtomSection(symbol(key));
+                json.beginObject();
+                while (json.hasNext()) {
+                    if (json.nextName().equals("electron_shells")) {
+                        json.beginArray();
+                        while (json.hasNext()) {
+                            atom.blocks.add(shell(json));
+                        }
+                        json.endArray();
+                    } else {
+                        json.skipValue();
+                    }
+                }
+                json.endObject();
+                if (!atom.blocks.isEmpty()) {
+                    sink.accept(atom);
+                } else if (warnings != null) {
+                    warnings.println(Dic.getMsg("WARN_BSE_NO_SHELLS", key));
+                }
+            }
+            json.endObject();
+        }
+        json.endObject();
+    }
+
+    private static BasisParser.Block shell(JsonReader json) throws IOException {
+        List<String> momenta = new ArrayList<>();
+        List<String> exponents = new ArrayList<>();
+        List<List<String>> coefficients = new ArrayList<>();
+        json.beginObject();
+        while (json.hasNext()) {
+            switch (json.nextName()) {
+                case "angular_momentum" -> values(json, momenta);
+                case "exponents" -> values(json, exponents);
+                case "coefficients" -> {
+                    json.beginArray();
+                    while (json.hasNext()) {
+                        List<String> column = new ArrayList<>();
+                        values(json, column);
+                        coefficients.add(column);
+                    }
+                    json.endArray();
+                }
+                default -> json.skipValue();
+            }
+        }
+        json.endObject();
+
+        StringBuilder type = new StringBuilder();
+        for (String l : momenta) {
+            type.append(SHELLS.charAt(Integer.parseInt(l.trim())));
+        }
+        BasisParser.Block block = new BasisParser.Block(type.toString(), exponents.size() + " 1.00");
+        for (int i = 0; i < exponents.size(); i++) {
+            StringBuilder row = new StringBuilder(exponents.get(i).trim());
+            for (List<String> column : coefficients) {
+                row.append("  ").append(i < column.size() ? column.get(i).trim() : "0.0");
+            }
+            block.lines.add(row.toString());
+        }
+        return block;
+    }
+
+    private static void values(JsonReader json, List<String> target) throws IOException {
+        json.beginArray();
+        while (json.hasNext()) {
+            target.add(json.nextValue());
+        }
+        json.endArray();
+    }
+
+    static String symbol(String key) {
+        try {
+            int z = Integer.parseInt(key.trim());
+            if (z > 0 && z < ELEMENTS.length) {
+                return ELEMENTS[z];
+            }
+        } catch (NumberFormatException e) {
+            // already a symbol
+        }
+        return key.trim();
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * BSD 3-Clause License
+ * 
+ * Copyright (c) 2025, M. Macernis
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation 
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors 
+ *    may be used to endorse or promote products derived from this software 
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE 
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER 
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, 
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE 
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package basissculpt.lib.read;
+
+import basissculpt.etc.ArgsGet;
+import basissculpt.etc.Settings;
+import basissculpt.lib.Tools;
+import java.math.BigDecimal;
+import java.math.MathContext;
+
+/**
+ * BasisSculpt - Sculpting Gaussian Basis Sets via Norm Control
+ *
+ * Predicted cost of the analysis of a shell and of an atom, in units of one
+ * million primitive evaluations on the radial grid at 16 digits. A shell of
+ * n primitives makes a full pass and n partial passes over the
+ * Tools.suggestSteps grid of its most diffuse exponent (n² evaluations per
+ * grid point), plus the normalization pass; further columns sharing the
+ * exponents ride along the same passes. The overlap matrix of the joined
+ * block and the removal decisions of a sweep (n² per level; n⁴/3 with
+ * --refit, a Cholesky factorization of about n³/3 for each of the n
+ * candidates) are counted in evaluation equivalents.
+ * The cost of a BigDecimal evaluation grows with the precision roughly as
+ * digits^0.8 (measured on cc-pVDZ from 5 to 40 digits); on the
+ * double-double kernel a grid evaluation costs about the same at any
+ * precision, 0.12 units (cc-pVDZ at 20 and 28 digits).
+ *
+ * Only the order and the ratios matter for scheduling (--threads); the
+ * totals are printed by --estimate.
+ *
+ * @author M. Macernis
+ * @version 2025.4.v1
+ */
+public final class CostModel {
+
+    private static final double UNIT = 1e6;
+    private static final double COLUMN = 0.25;  // extra column of a shared pass
+    private static final double OVERLAP = 4.0;  // overlap element (two square roots)
+    private static final double DOUBLE_DOUBLE = 0.12; // grid evaluation on that kernel
+
+    private final MathContext mc;
+    private final double precision;
+    private final double grid;          // weight of a grid evaluation
+    private final boolean normalize;
+    private final boolean refit;
+    private final int levels;
+
+    public CostModel(ArgsGet args, Settings settings) {
+        this.mc = settings.getMC();
+        this.precision = Math.pow(settings.getPrecision() / 16.0, 0.8);
+        this.grid = settings.isDoubleDouble() ? DOUBLE_DOUBLE : precision;
+        this.normalize = args.isKey("normalize");
+        this.refit = args.isKey("refit");
+        this.levels = settings.isSweep() || refit ? settings.getThresholds().size() : 0;
+    }
+
+    /**
+     * Cost of one shell (all columns of a general contraction).
+     */
+    public double block(BasisParser.Block block) {
+        int columns = BasisParser.columns(block);
+        int n = 0;
+        double minAlpha = Double.POSITIVE_INFINITY;
+        for (int row = 0; row < block.lines.size(); row++) {
+            String[] parts = BasisParser.tokens(block, row);
+            if (parts.length != columns + 1) {
+                continue; // skipped by BasisParser.expandBlock as well
+            }
+            try {
+                minAlpha = Math.min(minAlpha, Double.parseDouble(parts[0].replace('D', 'E').replace('d', 'E')));
+                n++;
+            } catch (NumberFormatException e) {
+                // reported by the analysis
+            }
+        }
+        if (n == 0) {
+            return 0;
+        }
+        double rMax = minAlpha > 0 ? Math.max(3.0, 3.0 / Math.sqrt(minAlpha)) : 3.0;
+        int steps = Tools.suggestSteps(BigDecimal.valueOf(rMax), mc);
+
+        double passes = n > 1 ? n + (double) n * (n - 1) : 0; // full and partial norms
+        if (normalize) {
+            passes += n; // check of the normalized shell; the scale comes from the full norm
+        }
+        double evaluations = OVERLAP * n * n * columns;
+        evaluations += levels * columns * (refit ? (double) n * n * n * n / 3 : (double) n * n);
+        return (passes * steps * (1 + COLUMN * (columns - 1)) * grid + evaluations * precision) / UNIT;
+    }
+
+    /**
+     * Cost of an atom: its shells and the overlap of the joined block.
+     */
+    public double atom(BasisParser.AtomSection atom) {
+        double cost = 0;
+        int primitives = 0;
+        for (BasisParser.Block block : atom.blocks) {
+            cost += block(block);
+            primitives += block.lines.size() * BasisParser.columns(block);
+        }
+        return cost + OVERLAP * primitives * primitives / 2 * precision / UNIT;
+    }
+}
@@ -0,0 +1,291 @@
+/*
+ * BSD 3-Clause License
+ * 
+ * Copyright (c) 2025, M. Macernis
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation 
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors 
+ *    may be used to endorse or promote products derived from this software 
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE 
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER 
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, 
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE 
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package basissculpt.lib.read;
+
+import basissculpt.bin.Output;
+import java.io.PrintWriter;
+import java.util.Arrays;
+
+/**
+ * BasisSculpt - Sculpting Gaussian Basis Sets via Norm Control
+ *
+ * Fortran style (D exponent) number formatting for the basis output, written
+ * into a reusable char buffer. The result is the same as the String.format
+ * based formatting it replaces; values whose last digit lies too close to a
+ * rounding tie to be decided in double arithmetic, and values outside the
+ * usual range, are formatted by the original String.format code.
+ *
+ * @author M. Macernis
+ * @version 2025.4.v1
+ */
+public final class FortranFormat {
+
+    // exactly representable powers of ten
+    private static final double[] EXACT = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final long[] LONG_POW10 = new long[19];
+    // Math.pow(10, k) for the exponent of formatAlwaysZeroD
+    private static final int MIN_EXP = -300;
+    private static final int MAX_EXP = 300;
+    private static final double[] POW10 = new double[MAX_EXP - MIN_EXP + 1];
+
+    static {
+        LONG_POW10[0] = 1;
+        for (int i = 1; i < LONG_POW10.length; i++) {
+            LONG_POW10[i] = LONG_POW10[i - 1] * 10;
+        }
+        for (int k = MIN_EXP; k <= MAX_EXP; k++) {
+            POW10[k - MIN_EXP] = Math.pow(10, k);
+        }
+    }
+
+    private char[] buf = new char[128];
+    private int length;
+
+    public FortranFormat append(String s) {
+        ensure(s.length());
+        s.getChars(0, s.length(), buf, length);
+        length += s.length();
+        return this;
+    }
+
+    /**
+     * Same as {@code String.format("%" + width + "s",
+     * String.format("%." + digits + "E", value).replace('E', 'D'))}.
+     */
+    public FortranFormat appendE(double value, int digits, int width) {
+        int start = length;
+        if (!scientific(value, digits)) {
+            length = start;
+            append(String.format("%." + digits + "E", value).replace('E', 'D'));
+        }
+        return pad(start, width);
+    }
+
+    /**
+     * Same as {@link #formatAlwaysZeroD(double, int)}: 0.xxxxxxD±xx with the
+     * leading digit always zero.
+     */
+    public FortranFormat appendZeroD(double value, int decimals) {
+        if (decimals > 15) {
+            decimals = 15;
+        }
+        int start = length;
+        if (!zeroD(value, decimals)) {
+            length = start;
+            append(formatAlwaysZeroD(value, decimals));
+        }
+        return this;
+    }
+
+    /**
+     * Writes the buffered line to the output and clears the buffer.
+     */
+    public void println(Output out) {
+        out.println(buf, length);
+        length = 0;
+    }
+
+    public void println(PrintWriter out) {
+        out.write(buf, 0, length);
+        out.println();
+        length = 0;
+    }
+
+    @Override
+    public String toString() {
+        return new String(buf, 0, length);
+    }
+
+    private boolean scientific(double value, int digits) {
+        if (!Double.isFinite(value) || digits < 1 || digits > 9) {
+            return false;
+        }
+        boolean negative = Double.doubleToRawLongBits(value) < 0; // also -0.0
+        double a = Math.abs(value);
+        long mantissa = 0;
+        int exponent = 0;
+        if (a != 0.0) {
+            exponent = (int) Math.floor(Math.log10(a));
+            double s = scale(a, digits - exponent);
+            if (s >= LONG_POW10[digits + 1]) {
+                exponent++;
+                s = scale(a, digits - exponent);
+            } else if (s < LONG_POW10[digits]) {
+                exponent--;
+                s = scale(a, digits - exponent);
+            }
+            if (Double.isNaN(s)) {
+                return false;
+            }
+            mantissa = round(s, 1e-6);
+            if (mantissa < 0) {
+                return false;
+            }
+            if (mantissa == LONG_POW10[digits + 1]) {
+                mantissa = LONG_POW10[digits];
+                exponent++;
+            }
+        }
+        ensure(digits + 10);
+        if (negative) {
+            buf[length++] = '-';
+        }
+        writeFixed(mantissa, digits);
+        writeExponent(exponent, 2);
+        return true;
+    }
+
+    private boolean zeroD(double value, int decimals) {
+        if (!Double.isFinite(value) || decimals < 1 || decimals > 12) {
+            return false;
+        }
+        ensure(decimals + 10);
+        if (value == 0.0) {
+            writeFixed(0, decimals);
+            writeExponent(0, 2);
+            return true;
+        }
+        int exponent = (int) Math.floor(Math.log10(Math.abs(value))) + 1;
+        if (exponent < MIN_EXP || exponent > MAX_EXP) {
+            return false;
+        }
+        double mantissa = value / POW10[exponent - MIN_EXP];
+        double s = Math.abs(mantissa) * EXACT[decimals];
+        long digits = round(s, Math.max(1e-6, s * 1e-14));
+        if (digits < 0) {
+            return false;
+        }
+        if (mantissa < 0) {
+            buf[length++] = '-';
+        }
+        writeFixed(digits, decimals);
+        writeExponent(exponent, 2);
+        return true;
+    }
+
+    private static double scale(double a, int n) {
+        if (n >= 0 && n < EXACT.length) {
+            return a * EXACT[n];
+        }
+        if (n < 0 && -n < EXACT.length) {
+            return a / EXACT[-n];
+        }
+        return Double.NaN;
+    }
+
+    /**
+     * Half up rounding as done by Formatter on the decimal digits of the
+     * value; -1 when s is within tolerance of a tie.
+     */
+    private static long round(double s, double tolerance) {
+        double floor = Math.floor(s);
+        double fraction = s - floor;
+        if (Math.abs(fraction - 0.5) <= tolerance) {
+            return -1;
+        }
+        return (long) floor + (fraction > 0.5 ? 1 : 0);
+    }
+
+    // value / 10^decimals with the given number of decimals
+    private void writeFixed(long value, int decimals) {
+        long scale = LONG_POW10[decimals];
+        writeDigits(value / scale, 1);
+        buf[length++] = '.';
+        writeDigits(value % scale, decimals);
+    }
+
+    private void writeExponent(int exponent, int minDigits) {
+        buf[length++] = 'D';
+        buf[length++] = exponent < 0 ? '-' : '+';
+        writeDigits(Math.abs(exponent), minDigits);
+    }
+
+    private void writeDigits(long value, int minDigits) {
+        int n = 1;
+        while (n < 19 && value >= LONG_POW10[n]) {
+            n++;
+        }
+        n = Math.max(n, minDigits);
+        ensure(n);
+        for (int i = length + n - 1; i >= length; i--) {
+            buf[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        length += n;
+    }
+
+    private FortranFormat pad(int start, int width) {
+        int n = length - start;
+        if (n < width) {
+            int shift = width - n;
+            ensure(shift);
+            System.arraycopy(buf, start, buf, start + shift, n);
+            Arrays.fill(buf, start, start + shift, ' ');
+            length += shift;
+        }
+        return this;
+    }
+
+    private void ensure(int extra) {
+        if (length + extra > buf.length) {
+            buf = Arrays.copyOf(buf, Math.max(buf.length * 2, length + extra));
+        }
+    }
+
+    /**
+     *
+     * BasisSet values in standard format and Fortran style (0.xxxxxxD±xx).
+     * Formats the given double value ensuring the leading digit is always zero,
+     * followed by the specified number of decimals and a Fortran-style exponent
+     * ('D' notation).
+     *
+     * Example: 13.0 with 6 decimals -> 0.130000D+02
+     *
+     * @param value the numeric value to format
+     * @param decimals the number of decimal places after the dot (maximum reliable precision: 15 digits, IEEE 754 double)
+     * @return formatted string in BasisSet/Fortran 'D' exponent format
+     */
+    static String formatAlwaysZeroD(double value, int decimals) {
+        if(decimals>15) decimals=15;
+        if (value == 0.0) {
+            return String.format("0.%0" + decimals + "dD+00", 0);
+        }
+
+        int exponent = (int) Math.floor(Math.log10(Math.abs(value))) + 1;
+        double mantissa = value / Math.pow(10, exponent);
+
+        return String.format("%." + decimals + "fD%+03d", mantissa, exponent);
+    }
+}
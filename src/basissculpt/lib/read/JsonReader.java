@@ -0,0 +1,275 @@
+/*
+ * BSD 3-Clause License
+ * 
+ * Copyright (c) 2025, M. Macernis
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation 
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors 
+ *    may be used to endorse or promote products derived from this software 
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE 
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER 
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, 
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE 
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package basissculpt.lib.read;
+
+import basissculpt.etc.Dic;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * BasisSculpt - Sculpting Gaussian Basis Sets via Norm Control
+ *
+ * Pull reader of a JSON document: tokens are read from the underlying
+ * reader as they are requested, so a document of any size is walked with
+ * the memory of the values actually taken. Numbers are returned as their
+ * text, unchanged (as strings are in the Basis Set Exchange format).
+ *
+ * @author M. Macernis
+ * @version 2025.4.v1
+ */
+public class JsonReader {
+
+    public enum Token {
+        BEGIN_OBJECT, END_OBJECT, BEGIN_ARRAY, END_ARRAY, NAME, STRING, NUMBER, LITERAL, END
+    }
+
+    private final Reader in;
+    private final char[] buf = new char[1 << 14];
+    private int pos;
+    private int limit;
+    private long line = 1;
+
+    private Token peeked;
+    private final StringBuilder text = new StringBuilder();
+    // nesting: true for an object, where a string before ':' is a name
+    private boolean[] stack = new boolean[32];
+    private int depth;
+    private boolean expectName;
+
+    public JsonReader(Reader in) {
+        this.in = in;
+    }
+
+    public Token peek() throws IOException {
+        if (peeked == null) {
+            peeked = next();
+        }
+        return peeked;
+    }
+
+    public void beginObject() throws IOException {
+        expect(Token.BEGIN_OBJECT);
+    }
+
+    public void endObject() throws IOException {
+        expect(Token.END_OBJECT);
+    }
+
+    public void beginArray() throws IOException {
+        expect(Token.BEGIN_ARRAY);
+    }
+
+    public void endArray() throws IOException {
+        expect(Token.END_ARRAY);
+    }
+
+    /**
+     * True while the current object or array has more members.
+     */
+    public boolean hasNext() throws IOException {
+        Token t = peek();
+        return t != Token.END_OBJECT && t != Token.END_ARRAY && t != Token.END;
+    }
+
+    public String nextName() throws IOException {
+        expect(Token.NAME);
+        return text.toString();
+    }
+
+    /**
+     * A string, number or literal value as text.
+     */
+    public String nextValue() throws IOException {
+        Token t = peek();
+        if (t != Token.STRING && t != Token.NUMBER && t != Token.LITERAL) {
+            throw error("value expected, found " + t);
+        }
+        peeked = null;
+        return text.toString();
+    }
+
+    /**
+     * Skips the next value, including nested objects and arrays.
+     */
+    public void skipValue() throws IOException {
+        int level = 0;
+        do {
+            Token t = peek();
+            peeked = null;
+            if (t == Token.BEGIN_OBJECT || t == Token.BEGIN_ARRAY) {
+                level++;
+            } else if (t == Token.END_OBJECT || t == Token.END_ARRAY) {
+                level--;
+            } else if (t == Token.END) {
+                throw error("unexpected end of input");
+            }
+        } while (level > 0);
+    }
+
+    private void expect(Token token) throws IOException {
+        Token t = peek();
+        if (t != token) {
+            throw error(token + " expected, found " + t);
+        }
+        peeked = null;
+    }
+
+    private Token next() throws IOException {
+        int c = nonBlank();
+        while (c == ',' || c == ':') {
+            c = nonBlank();
+        }
+        switch (c) {
+            case -1:
+                return Token.END;
+            case '{':
+                push(true);
+                return Token.BEGIN_OBJECT;
+            case '[':
+                push(false);
+                return Token.BEGIN_ARRAY;
+            case '}':
+            case ']':
+                if (depth == 0) {
+                    throw error("unbalanced '" + (char) c + "'");
+                }
+                depth--;
+                expectName = depth > 0 && stack[depth - 1];
+                return c == '}' ? Token.END_OBJECT : Token.END_ARRAY;
+            case '"':
+                string();
+                boolean name = expectName;
+                expectName = !name && depth > 0 && stack[depth - 1];
+                return name ? Token.NAME : Token.STRING;
+            default:
+                literal(c);
+                expectName = depth > 0 && stack[depth - 1];
+                return c == '-' || (c >= '0' && c <= '9') ? Token.NUMBER : Token.LITERAL;
+        }
+    }
+
+    private void push(boolean object) {
+        if (depth == stack.length) {
+            stack = Arrays.copyOf(stack, depth * 2);
+        }
+        stack[depth++] = object;
+        expectName = object;
+    }
+
+    private void string() throws IOException {
+        text.setLength(0);
+        while (true) {
+            int c = read();
+            if (c == -1) {
+                throw error("unterminated string");
+            }
+            if (c == '"') {
+                return;
+            }
+            if (c == '\\') {
+                c = read();
+                switch (c) {
+                    case 'n' -> text.append('\n');
+                    case 't' -> text.append('\t');
+                    case 'r' -> text.append('\r');
+                    case 'b' -> text.append('\b');
+                    case 'f' -> text.append('\f');
+                    case 'u' -> {
+                        int code = 0;
+                        for (int i = 0; i < 4; i++) {
+                            int d = Character.digit(read(), 16);
+                            if (d < 0) {
+                                throw error("bad \\u escape");
+                            }
+                            code = code * 16 + d;
+                        }
+                        text.append((char) code);
+                    }
+                    case -1 -> throw error("unterminated string");
+                    default -> text.append((char) c);
+                }
+            } else {
+                text.append((char) c);
+            }
+        }
+    }
+
+    private void literal(int first) throws IOException {
+        text.setLength(0);
+        text.append((char) first);
+        while (true) {
+            if (pos == limit && !fill()) {
+                return;
+            }
+            char c = buf[pos];
+            if (c == ',' || c == '}' || c == ']' || c == ':' || Character.isWhitespace(c)) {
+                return;
+            }
+            text.append(c);
+            pos++;
+        }
+    }
+
+    private int nonBlank() throws IOException {
+        int c;
+        do {
+            c = read();
+        } while (c != -1 && Character.isWhitespace(c));
+        return c;
+    }
+
+    private int read() throws IOException {
+        if (pos == limit && !fill()) {
+            return -1;
+        }
+        char c = buf[pos++];
+        if (c == '\n') {
+            line++;
+        }
+        return c;
+    }
+
+    private boolean fill() throws IOException {
+        int n = in.read(buf, 0, buf.length);
+        if (n <= 0) {
+            return false;
+        }
+        pos = 0;
+        limit = n;
+        return true;
+    }
+
+    private IOException error(String detail) {
+        return new IOException(Dic.getMsg("ERROR_JSON_SYNTAX", line, detail));
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * BSD 3-Clause License
+ * 
+ * Copyright (c) 2025, M. Macernis
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation 
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors 
+ *    may be used to endorse or promote products derived from this software 
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE 
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER 
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, 
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE 
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package basissculpt.lib.read;
+
+import basissculpt.bin.LogFile;
+import basissculpt.etc.Dic;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * BasisSculpt - Sculpting Gaussian Basis Sets via Norm Control
+ *
+ * NWChem basis input: "BASIS ... END" sections of "&lt;element&gt; &lt;shell&gt;"
+ * headers followed by rows of an exponent and its coefficients. Consecutive
+ * shells of one element form an atom, handed over when the element changes;
+ * ECP and other sections are skipped.
+ *
+ * @author M. Macernis
+ * @version 2025.4.v1
+ */
+public class NwchemFormat implements BasisFormat {
+
+    @Override
+    public String name() {
+        return "nwchem";
+    }
+
+    @Override
+    public boolean accepts(String fileName, String head) {
+        String name = fileName == null ? "" : fileName.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".nw") || name.endsWith(".nwchem")) {
+            return true;
+        }
+        for (String line : head.split("\\R")) {
+            String t = line.trim();
+            if (t.isEmpty() || t.startsWith("#")) {
+                continue;
+            }
+            return t.toUpperCase(Locale.ROOT).startsWith("BASIS");
+        }
+        return false;
+    }
+
+    @Override
+    public void read(BufferedReader reader, Consumer<BasisParser.AtomSection> sink, LogFile warnings) throws IOException {
+        String line;
+        boolean inBasis = false;
+        BasisParser.AtomSection atom = null;
+        String type = null;                  // shell being read
+        List<String> rows = new ArrayList<>();
+        int linenum = 0;
+        while ((line = reader.readLine()) != null) {
+            linenum++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] parts = line.split("\\s+");
+            String first = parts[0].toUpperCase(Locale.ROOT);
+            if (!inBasis) {
+                inBasis = first.equals("BASIS");
+                continue;
+            }
+            if (first.equals("END") || Character.isLetter(line.charAt(0))) {
+                add(atom, type, rows);
+                type = null;
+            }
+            if (first.equals("END")) {
+                inBasis = false;
+            } else if (Character.isLetter(line.charAt(0))) {
+                if (parts.length < 2) {
+                    if (warnings != null) {
+                        warnings.println(Dic.getMsg("WARN_NWCHEM_LINE", linenum, line));
+                    }
+                    continue;
+                }
+                String symbol = BseJsonFormat.symbol(parts[0]);
+                if (atom == null || !atom.atom.equalsIgnoreCase(symbol)) {
+                    if (atom != null) {
+                        sink.accept(atom);
+                    }
+                    atom = new BasisParser.AtomSection(symbol);
+                }
+                type = parts[1].toUpperCase(Locale.ROOT);
+            } else if (type != null) {
+                rows.add(line);
+            }
+        }
+        add(atom, type, rows);
+        if (atom != null) {
+            sink.accept(atom);
+        }
+    }
+
+    /**
+     * Adds the shell read so far; the header carries its primitive count.
+     */
+    private static void add(BasisParser.AtomSection atom, String type, List<String> rows) {
+        if (atom != null && type != null && !rows.isEmpty()) {
+            BasisParser.Block block = new BasisParser.Block(type, rows.size() + " 1.00");
+            block.lines.addAll(rows);
+            atom.blocks.add(block);
+        }
+        rows.clear();
+    }
+}